@@ -0,0 +1,158 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.core.util.Yaml;
+
+/**
+ * Generates the Swagger 2 and OpenAPI 3 definitions used by the benchmarks. Each resource path returns its own
+ * model, and the models reference each other in chains of {@value #REFERENCE_CHAIN_LENGTH} so that the resolvers
+ * have real work to do without recursing through the whole definition.
+ */
+public class Corpus {
+    private static final int REFERENCE_CHAIN_LENGTH = 10;
+    private static final JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
+
+    public enum SpecVersion {
+        SWAGGER_2,
+        OPENAPI_3,
+    }
+
+    public enum Size {
+        SMALL(5),
+        MEDIUM(200),
+        HUGE(2000);
+
+        private final int resourceCount;
+
+        Size(int resourceCount) {
+            this.resourceCount = resourceCount;
+        }
+    }
+
+    public enum Format {
+        JSON,
+        YAML,
+    }
+
+    /**
+     * @param specVersion Swagger 2 or OpenAPI 3
+     * @param size        number of resources and models in the definition
+     * @param format      JSON or YAML
+     * @return generated definition
+     */
+    public static String generate(SpecVersion specVersion, Size size, Format format) {
+        ObjectNode definition = generateTree(specVersion, size.resourceCount);
+        try {
+            return format == Format.JSON ? Json.mapper().writeValueAsString(definition)
+                    : Yaml.mapper().writeValueAsString(definition);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error while serializing the generated definition", e);
+        }
+    }
+
+    /**
+     * @param specVersion   Swagger 2 or OpenAPI 3
+     * @param resourceCount number of resources and models in the definition, each adding about two $ref values
+     * @return JSON tree of the generated definition
+     */
+    public static ObjectNode generateTree(SpecVersion specVersion, int resourceCount) {
+        return specVersion == SpecVersion.SWAGGER_2 ? generateSwagger(resourceCount) : generateOpenAPI(resourceCount);
+    }
+
+    private static ObjectNode generateSwagger(int resourceCount) {
+        ObjectNode definition = nodeFactory.objectNode();
+        definition.put("swagger", "2.0");
+        definition.set("info", info(resourceCount));
+        definition.put("basePath", "/api");
+        ObjectNode paths = definition.putObject("paths");
+        ObjectNode definitions = definition.putObject("definitions");
+        for (int i = 0; i < resourceCount; i++) {
+            ObjectNode operation = operation(paths, i);
+            ArrayNode parameters = operation.putArray("parameters");
+            parameters.addObject().put("name", "id").put("in", "path").put("required", true).put("type", "string");
+            parameters.addObject().put("name", "q").put("in", "query").put("type", "string");
+            ObjectNode response = operation.putObject("responses").putObject("200").put("description", "ok");
+            response.putObject("schema").put("$ref", "#/definitions/" + modelName(i));
+            definitions.set(modelName(i), model(i, resourceCount, "#/definitions/"));
+        }
+        return definition;
+    }
+
+    private static ObjectNode generateOpenAPI(int resourceCount) {
+        ObjectNode definition = nodeFactory.objectNode();
+        definition.put("openapi", "3.0.1");
+        definition.set("info", info(resourceCount));
+        definition.putArray("servers").addObject().put("url", "https://localhost/api");
+        ObjectNode paths = definition.putObject("paths");
+        ObjectNode schemas = definition.putObject("components").putObject("schemas");
+        for (int i = 0; i < resourceCount; i++) {
+            ObjectNode operation = operation(paths, i);
+            ArrayNode parameters = operation.putArray("parameters");
+            ObjectNode idParameter = parameters.addObject().put("name", "id").put("in", "path").put("required", true);
+            idParameter.putObject("schema").put("type", "string");
+            parameters.addObject().put("name", "q").put("in", "query").putObject("schema").put("type", "string");
+            ObjectNode response = operation.putObject("responses").putObject("200").put("description", "ok");
+            response.putObject("content").putObject("application/json").putObject("schema")
+                    .put("$ref", "#/components/schemas/" + modelName(i));
+            schemas.set(modelName(i), model(i, resourceCount, "#/components/schemas/"));
+        }
+        return definition;
+    }
+
+    private static ObjectNode info(int resourceCount) {
+        ObjectNode info = nodeFactory.objectNode();
+        info.put("title", "Benchmark API " + resourceCount);
+        info.put("version", "1.0.0");
+        return info;
+    }
+
+    private static ObjectNode operation(ObjectNode paths, int index) {
+        ObjectNode operation = paths.putObject("/resource" + index + "/{id}").putObject("get");
+        operation.put("summary", "Get resource " + index);
+        operation.put("operationId", "getResource" + index);
+        return operation;
+    }
+
+    private static ObjectNode model(int index, int resourceCount, String refPrefix) {
+        ObjectNode model = nodeFactory.objectNode();
+        model.put("type", "object");
+        model.put("description", "Model " + index + " of the benchmark corpus");
+        ObjectNode properties = model.putObject("properties");
+        properties.putObject("id").put("type", "integer").put("format", "int64");
+        properties.putObject("name").put("type", "string").put("example", "name-" + index);
+        properties.putObject("tags").put("type", "array").putObject("items").put("type", "string");
+        int next = index + 1;
+        if (next % REFERENCE_CHAIN_LENGTH != 0 && next < resourceCount) {
+            properties.putObject("next").put("$ref", refPrefix + modelName(next));
+        }
+        return model;
+    }
+
+    private static String modelName(int index) {
+        return "Model" + index;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.apim.swagger.tool.RefIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the $ref index on definitions with tens of thousands of $ref values, against the recursive
+ * traversal the remote references were found with before.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+@State(Scope.Benchmark)
+public class RefIndexBenchmark {
+    @Param({"SWAGGER_2", "OPENAPI_3"})
+    public Corpus.SpecVersion specVersion;
+
+    @Param({"10000", "30000"})
+    public int resourceCount;
+
+    private JsonNode rootNode;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        rootNode = Corpus.generateTree(specVersion, resourceCount);
+    }
+
+    @Benchmark
+    public RefIndex buildRefIndex() {
+        return RefIndex.build(rootNode);
+    }
+
+    @Benchmark
+    public List<JsonNode> recursiveFindRefValues() {
+        return findRefValues(rootNode);
+    }
+
+    private static List<JsonNode> findRefValues(JsonNode node) {
+        List<JsonNode> refValues = new ArrayList<>();
+
+        if (node instanceof ObjectNode) {
+            ObjectNode objectNode = (ObjectNode) node;
+            objectNode.fields().forEachRemaining(entry -> {
+                if (entry.getKey().equals("$ref")) {
+                    refValues.add(entry.getValue());
+                } else {
+                    refValues.addAll(findRefValues(entry.getValue()));
+                }
+            });
+        } else if (node instanceof ArrayNode) {
+            ArrayNode arrayNode = (ArrayNode) node;
+            arrayNode.forEach(element -> refValues.addAll(findRefValues(element)));
+        }
+
+        return refValues;
+    }
+}
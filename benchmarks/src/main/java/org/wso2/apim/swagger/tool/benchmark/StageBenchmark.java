@@ -0,0 +1,101 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.parser.core.models.SwaggerParseResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.apim.swagger.tool.DefinitionParser;
+import org.wso2.apim.swagger.tool.ParsedDefinition;
+import org.wso2.apim.swagger.tool.ParserContext;
+import org.wso2.apim.swagger.tool.SwaggerTool;
+import org.wso2.apim.swagger.tool.ValidationResult;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the stages every definition goes through, regardless of its version.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+@State(Scope.Benchmark)
+public class StageBenchmark {
+    @Param({"SWAGGER_2", "OPENAPI_3"})
+    public Corpus.SpecVersion specVersion;
+
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    public Corpus.Size size;
+
+    @Param({"JSON", "YAML"})
+    public Corpus.Format format;
+
+    private String content;
+    private ParsedDefinition definition;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        content = Corpus.generate(specVersion, size, format);
+        definition = DefinitionParser.parse(content);
+    }
+
+    @Benchmark
+    public ParsedDefinition parse() {
+        return DefinitionParser.parse(content);
+    }
+
+    @Benchmark
+    public List<Object> getSwaggerVersion() {
+        return SwaggerTool.getSwaggerVersion(definition);
+    }
+
+    /**
+     * Swagger 2 definitions only go through the openapi field, as the OpenAPI 3 parser does not read them into a model.
+     */
+    @Benchmark
+    public SwaggerParseResult readOpenAPI() {
+        return DefinitionParser.readOpenAPI(definition, ParserContext.getOpenAPIValidationOptions());
+    }
+
+    @Benchmark
+    public List<JsonNode> findRefValues() {
+        return SwaggerTool.findRefValues(definition.getRootNode());
+    }
+
+    @Benchmark
+    public ValidationResult validateSwaggerContent() {
+        return SwaggerTool.validateSwaggerContent(content, 2);
+    }
+}
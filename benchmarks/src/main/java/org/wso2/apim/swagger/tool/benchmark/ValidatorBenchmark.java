@@ -0,0 +1,92 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.apim.swagger.tool.DefinitionParser;
+import org.wso2.apim.swagger.tool.ParsedDefinition;
+import org.wso2.apim.swagger.tool.SwaggerTool;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the Swagger 2 and OpenAPI 3 validators, each given a definition of its own version.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class ValidatorBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Swagger2Definition {
+        @Param({"SMALL", "MEDIUM", "HUGE"})
+        public Corpus.Size size;
+
+        @Param({"JSON", "YAML"})
+        public Corpus.Format format;
+
+        private ParsedDefinition definition;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            definition = DefinitionParser.parse(Corpus.generate(Corpus.SpecVersion.SWAGGER_2, size, format));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OpenAPI3Definition {
+        @Param({"SMALL", "MEDIUM", "HUGE"})
+        public Corpus.Size size;
+
+        @Param({"JSON", "YAML"})
+        public Corpus.Format format;
+
+        private ParsedDefinition definition;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            definition = DefinitionParser.parse(Corpus.generate(Corpus.SpecVersion.OPENAPI_3, size, format));
+        }
+    }
+
+    @Benchmark
+    public boolean swagger2Validator(Swagger2Definition swagger2Definition) {
+        return SwaggerTool.swagger2Validator(swagger2Definition.definition, 2);
+    }
+
+    @Benchmark
+    public boolean swagger3Validator(OpenAPI3Definition openAPI3Definition) {
+        return SwaggerTool.swagger3Validator(openAPI3Definition.definition, 2);
+    }
+}
@@ -0,0 +1,588 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads the definitions of a batch input, a ZIP or tar archive or a stream of concatenated definitions, straight
+ * from the file or the standard input without extracting it. Each definition is read into memory and handed to the
+ * validator one at a time, so the memory used does not depend on the size of the input but on the size of its
+ * largest definition and the number of definitions the validator holds at the same time.
+ * <p>
+ * The entries of an archive are filtered with the rules of the {@link FileDiscovery} of the run, as if the archive
+ * was extracted into the folder being validated. A stream holds one JSON definition per line (NDJSON) or YAML
+ * definitions separated by "---" lines. When the input is validated in shards, the definitions of a stream are
+ * assigned to the shards by the line they start at.
+ */
+public class BatchInputReader {
+    private static final Logger log = LoggerFactory.getLogger(BatchInputReader.class);
+    /** Location of the standard input. */
+    public static final String STANDARD_INPUT = "-";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int TAR_BLOCK_SIZE = 512;
+    private static final int TAR_MAGIC_OFFSET = 257;
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    private final Format format;
+    private final FileDiscovery fileDiscovery;
+
+    /**
+     * Format of a batch input.
+     */
+    public enum Format {
+        ZIP("zip"),
+        TAR("tar"),
+        TAR_GZ("tar.gz"),
+        NDJSON("ndjson"),
+        YAML("yaml");
+
+        private final String name;
+
+        Format(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @param name name of the format, as given by the input format option
+         * @return format of the given name, or null if there is none
+         */
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.name.equals(name)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @param fileName name of the input file
+         * @return format given by the extension of the file, or null if the file is not a batch input
+         */
+        static Format ofFileName(String fileName) {
+            String lowerCaseName = fileName.toLowerCase(Locale.ROOT);
+            if (lowerCaseName.endsWith(".zip")) {
+                return ZIP;
+            } else if (lowerCaseName.endsWith(".tar")) {
+                return TAR;
+            } else if (lowerCaseName.endsWith(".tar.gz") || lowerCaseName.endsWith(".tgz")) {
+                return TAR_GZ;
+            } else if (lowerCaseName.endsWith(".ndjson") || lowerCaseName.endsWith(".jsonl")) {
+                return NDJSON;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Handles the definitions read from a batch input.
+     */
+    public interface EntryHandler {
+        /**
+         * @param source  name of the definition, the input followed by the path of the archive entry or the line
+         *                the definition starts at
+         * @param content content of the definition
+         */
+        void validate(String source, byte[] content);
+
+        /**
+         * @param source name of the definition
+         * @param size   size of the definition, which is too large to be read into memory
+         */
+        void reject(String source, long size);
+    }
+
+    /**
+     * @param format        format of the batch inputs, or null if the format is detected from the name of the input
+     *                      file or the content of the standard input
+     * @param fileDiscovery rules the entries of the archives are filtered with
+     */
+    public BatchInputReader(Format format, FileDiscovery fileDiscovery) {
+        this.format = format;
+        this.fileDiscovery = fileDiscovery;
+    }
+
+    /**
+     * @param location location given to the tool
+     * @return whether the location is a batch input to be read by this reader instead of a definition file or a
+     * folder of definitions
+     */
+    public boolean accepts(String location) {
+        if (STANDARD_INPUT.equals(location)) {
+            return true;
+        }
+        if (format != null) {
+            return !Files.isDirectory(Paths.get(location));
+        }
+        return Format.ofFileName(location) != null;
+    }
+
+    /**
+     * Read the definitions of the given batch input.
+     * @param location      input file, or "-" for the standard input
+     * @param maxEntryBytes size of the largest definition to be read into memory, larger ones are skipped
+     * @param handler       handler of the definitions
+     * @throws IOException if the input cannot be read
+     */
+    public void read(String location, long maxEntryBytes, EntryHandler handler) throws IOException {
+        boolean standardInput = STANDARD_INPUT.equals(location);
+        String name = standardInput ? "stdin" : location;
+        try (InputStream inputStream = new BufferedInputStream(standardInput ? System.in
+                : Files.newInputStream(Paths.get(location)), BUFFER_SIZE)) {
+            Format inputFormat = format;
+            if (inputFormat == null) {
+                inputFormat = standardInput ? detect(inputStream) : Format.ofFileName(location);
+            }
+            switch (inputFormat) {
+                case ZIP:
+                    readZip(name, inputStream, maxEntryBytes, handler);
+                    break;
+                case TAR:
+                    readTar(name, inputStream, maxEntryBytes, handler);
+                    break;
+                case TAR_GZ:
+                    try (InputStream tarInputStream = new BufferedInputStream(new GZIPInputStream(inputStream,
+                            BUFFER_SIZE), BUFFER_SIZE)) {
+                        readTar(name, tarInputStream, maxEntryBytes, handler);
+                    }
+                    break;
+                case NDJSON:
+                    readLines(name, inputStream, maxEntryBytes, handler);
+                    break;
+                default:
+                    readYamlDocuments(name, inputStream, maxEntryBytes, handler);
+            }
+        }
+    }
+
+    /**
+     * Detect the format of the standard input from its first bytes. Content that is not an archive is read as
+     * NDJSON if it starts with a JSON object, and as a YAML stream otherwise.
+     * @param inputStream input, positioned at the first byte
+     * @return detected format
+     * @throws IOException if the input cannot be read
+     */
+    private static Format detect(InputStream inputStream) throws IOException {
+        byte[] head = new byte[TAR_MAGIC_OFFSET + 5];
+        inputStream.mark(head.length);
+        int length = readUpTo(inputStream, head, head.length);
+        inputStream.reset();
+        if (length >= 4 && head[0] == 'P' && head[1] == 'K' && head[2] == 3 && head[3] == 4) {
+            return Format.ZIP;
+        } else if (length >= 2 && ((head[0] & 0xff) | (head[1] & 0xff) << 8) == GZIP_MAGIC) {
+            return Format.TAR_GZ;
+        } else if (length == head.length && "ustar".equals(new String(head, TAR_MAGIC_OFFSET, 5,
+                StandardCharsets.US_ASCII))) {
+            return Format.TAR;
+        }
+        for (int i = 0; i < length; i++) {
+            if (head[i] > ' ') {
+                return head[i] == '{' ? Format.NDJSON : Format.YAML;
+            }
+        }
+        return Format.YAML;
+    }
+
+    private void readZip(String name, InputStream inputStream, long maxEntryBytes, EntryHandler handler)
+            throws IOException {
+        try (ZipInputStream zipInputStream = new ZipInputStream(inputStream)) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                if (!entry.isDirectory() && isAccepted(entry.getName())) {
+                    readEntry(name + "!/" + entry.getName(), zipInputStream, entry.getSize(), maxEntryBytes,
+                            handler);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read a tar archive in the POSIX ustar format, with the GNU long name and the pax path extensions.
+     */
+    private void readTar(String name, InputStream inputStream, long maxEntryBytes, EntryHandler handler)
+            throws IOException {
+        byte[] header = new byte[TAR_BLOCK_SIZE];
+        String longName = null;
+        while (readUpTo(inputStream, header, TAR_BLOCK_SIZE) == TAR_BLOCK_SIZE && !isZeroBlock(header)) {
+            String entryName = longName != null ? longName : readTarName(header);
+            longName = null;
+            long size = readTarSize(header);
+            byte type = header[156];
+            if (type == 'L') {
+                longName = trimNul(new String(readFully(inputStream, size), StandardCharsets.UTF_8));
+            } else if (type == 'x') {
+                longName = readPaxPath(readFully(inputStream, size));
+            } else if ((type == '0' || type == 0 || type == '7') && isAccepted(entryName)) {
+                readEntry(name + "!/" + entryName, inputStream, size, maxEntryBytes, handler);
+            } else {
+                skipFully(inputStream, size);
+            }
+            skipFully(inputStream, (TAR_BLOCK_SIZE - size % TAR_BLOCK_SIZE) % TAR_BLOCK_SIZE);
+        }
+    }
+
+    private static String readTarName(byte[] header) {
+        String entryName = readTarString(header, 0, 100);
+        if ("ustar".equals(readTarString(header, TAR_MAGIC_OFFSET, 5))) {
+            String prefix = readTarString(header, 345, 155);
+            if (!prefix.isEmpty()) {
+                entryName = prefix + "/" + entryName;
+            }
+        }
+        return entryName;
+    }
+
+    /**
+     * @return size of the entry, given as an octal number or, for large entries, as a base-256 number
+     */
+    private static long readTarSize(byte[] header) throws IOException {
+        if ((header[124] & 0x80) != 0) {
+            long size = 0;
+            for (int i = 125; i < 136; i++) {
+                size = (size << 8) | (header[i] & 0xff);
+            }
+            return size;
+        }
+        String octalSize = readTarString(header, 124, 12).trim();
+        try {
+            return octalSize.isEmpty() ? 0 : Long.parseLong(octalSize, 8);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid tar entry size " + octalSize);
+        }
+    }
+
+    private static String readTarString(byte[] header, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return path given by the "path" record of a pax extended header, or null if there is none
+     */
+    private static String readPaxPath(byte[] records) {
+        // each record is "<length> <key>=<value>\n", where the length includes the whole record
+        int offset = 0;
+        while (offset < records.length) {
+            int space = offset;
+            while (space < records.length && records[space] != ' ') {
+                space++;
+            }
+            int length;
+            try {
+                length = Integer.parseInt(new String(records, offset, space - offset, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (length <= 0 || offset + length > records.length) {
+                return null;
+            }
+            String record = new String(records, space + 1, offset + length - space - 2, StandardCharsets.UTF_8);
+            if (record.startsWith("path=")) {
+                return record.substring("path=".length());
+            }
+            offset += length;
+        }
+        return null;
+    }
+
+    private static boolean isZeroBlock(byte[] block) {
+        for (byte value : block) {
+            if (value != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String trimNul(String value) {
+        int end = value.indexOf('\0');
+        return end >= 0 ? value.substring(0, end) : value;
+    }
+
+    /**
+     * @param entryName path of an archive entry
+     * @return whether the entry is to be validated according to the file discovery rules
+     */
+    private boolean isAccepted(String entryName) {
+        try {
+            return fileDiscovery.accepts(Paths.get(entryName).normalize());
+        } catch (InvalidPathException e) {
+            log.error("Invalid archive entry name " + entryName + ", hence the entry will not be validated.");
+            return false;
+        }
+    }
+
+    /**
+     * @param size size of the entry, or -1 if the size is not known before the entry is read
+     */
+    private static void readEntry(String source, InputStream inputStream, long size, long maxEntryBytes,
+                                  EntryHandler handler) throws IOException {
+        if (size > maxEntryBytes) {
+            skipFully(inputStream, size);
+            handler.reject(source, size);
+        } else if (size >= 0) {
+            handler.validate(source, readFully(inputStream, size));
+        } else {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long skippedBytes = 0;
+            int length;
+            while ((length = inputStream.read(buffer)) != -1) {
+                if (skippedBytes == 0 && content.size() + (long) length <= maxEntryBytes) {
+                    content.write(buffer, 0, length);
+                } else {
+                    skippedBytes += length;
+                }
+            }
+            if (skippedBytes > 0) {
+                handler.reject(source, content.size() + skippedBytes);
+            } else {
+                handler.validate(source, content.toByteArray());
+            }
+        }
+    }
+
+    /**
+     * Read one JSON definition per line, skipping the blank lines.
+     */
+    private void readLines(String name, InputStream inputStream, long maxEntryBytes, EntryHandler handler)
+            throws IOException {
+        LineReader lineReader = new LineReader(inputStream, maxEntryBytes);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while (lineReader.readLine(line)) {
+            if (fileDiscovery.accepts(lineReader.getLineNumber())) {
+                String source = name + ":" + lineReader.getLineNumber();
+                if (lineReader.isOverflow()) {
+                    handler.reject(source, lineReader.getLineBytes());
+                } else {
+                    byte[] content = line.toByteArray();
+                    if (!isBlank(content)) {
+                        handler.validate(source, content);
+                    }
+                }
+            }
+            line.reset();
+        }
+    }
+
+    /**
+     * Read YAML definitions separated by "---" lines, where a "..." line ends a definition. The definitions that
+     * hold no more than comments are skipped.
+     */
+    private void readYamlDocuments(String name, InputStream inputStream, long maxEntryBytes,
+                                   EntryHandler handler) throws IOException {
+        LineReader lineReader = new LineReader(inputStream, maxEntryBytes);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        ByteArrayOutputStream document = new ByteArrayOutputStream();
+        YamlDocument current = new YamlDocument(1);
+        while (lineReader.readLine(line)) {
+            String text = lineReader.isOverflow() ? "" : line.toString(StandardCharsets.UTF_8.name());
+            boolean documentStart = text.equals("---") || text.startsWith("--- ");
+            if (documentStart || text.equals("...")) {
+                current.complete(name, document, handler);
+                current = new YamlDocument(lineReader.getLineNumber() + (documentStart ? 0 : 1));
+                if (documentStart && text.length() > 4) {
+                    // content on the marker line, e.g. "--- {openapi: 3.0.0, ...}"
+                    current.append(document, text.substring(4), maxEntryBytes);
+                }
+            } else if (lineReader.isOverflow()) {
+                current.skip(lineReader.getLineBytes());
+            } else {
+                current.append(document, text, maxEntryBytes);
+            }
+            line.reset();
+        }
+        current.complete(name, document, handler);
+    }
+
+    private static boolean isBlank(byte[] content) {
+        for (byte value : content) {
+            if (value < 0 || value > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A YAML definition of a stream, read line by line into a shared buffer.
+     */
+    private class YamlDocument {
+        private final int startLine;
+        private boolean hasContent;
+        private long skippedBytes;
+
+        YamlDocument(int startLine) {
+            this.startLine = startLine;
+        }
+
+        void append(ByteArrayOutputStream document, String line, long maxEntryBytes) {
+            String trimmedLine = line.trim();
+            if (!trimmedLine.isEmpty() && !trimmedLine.startsWith("#")) {
+                hasContent = true;
+            }
+            byte[] content = line.getBytes(StandardCharsets.UTF_8);
+            if (skippedBytes == 0 && document.size() + (long) content.length + 1 <= maxEntryBytes) {
+                document.write(content, 0, content.length);
+                document.write('\n');
+            } else {
+                skip(content.length + 1);
+            }
+        }
+
+        /**
+         * @param bytes size of a line of the definition that is not held in memory
+         */
+        void skip(long bytes) {
+            hasContent = true;
+            skippedBytes += bytes;
+        }
+
+        void complete(String name, ByteArrayOutputStream document, EntryHandler handler) {
+            String source = name + ":" + startLine;
+            if (hasContent && fileDiscovery.accepts(startLine)) {
+                if (skippedBytes > 0) {
+                    handler.reject(source, document.size() + skippedBytes);
+                } else {
+                    handler.validate(source, document.toByteArray());
+                }
+            }
+            document.reset();
+        }
+    }
+
+    /**
+     * Reads the lines of a stream, without the line terminators, holding no more than the given number of bytes of
+     * a line.
+     */
+    private static class LineReader {
+        private final InputStream inputStream;
+        private final long maxLineBytes;
+        private int lineNumber;
+        private long lineBytes;
+
+        LineReader(InputStream inputStream, long maxLineBytes) {
+            this.inputStream = inputStream;
+            this.maxLineBytes = maxLineBytes;
+        }
+
+        /**
+         * @param line buffer the line is written to, unless the line is longer than the limit
+         * @return whether a line was read
+         * @throws IOException if the stream cannot be read
+         */
+        boolean readLine(ByteArrayOutputStream line) throws IOException {
+            lineBytes = 0;
+            int character = inputStream.read();
+            if (character == -1) {
+                return false;
+            }
+            lineNumber++;
+            // a character is written once the next one is read, so that the \r of a \r\n terminator is dropped
+            int previous = -1;
+            while (character != -1 && character != '\n') {
+                if (previous != -1) {
+                    append(line, previous);
+                }
+                previous = character;
+                character = inputStream.read();
+            }
+            if (previous != -1 && previous != '\r') {
+                append(line, previous);
+            }
+            return true;
+        }
+
+        private void append(ByteArrayOutputStream line, int character) {
+            if (++lineBytes <= maxLineBytes) {
+                line.write(character);
+            }
+        }
+
+        int getLineNumber() {
+            return lineNumber;
+        }
+
+        long getLineBytes() {
+            return lineBytes;
+        }
+
+        /**
+         * @return whether the last line was longer than the limit, in which case it was skipped
+         */
+        boolean isOverflow() {
+            return lineBytes > maxLineBytes;
+        }
+    }
+
+    private static byte[] readFully(InputStream inputStream, long size) throws IOException {
+        byte[] content = new byte[(int) size];
+        if (readUpTo(inputStream, content, content.length) < content.length) {
+            throw new EOFException("Unexpected end of the archive");
+        }
+        return content;
+    }
+
+    private static int readUpTo(InputStream inputStream, byte[] buffer, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            int count = inputStream.read(buffer, offset, length - offset);
+            if (count == -1) {
+                break;
+            }
+            offset += count;
+        }
+        return offset;
+    }
+
+    private static void skipFully(InputStream inputStream, long length) throws IOException {
+        long remaining = length;
+        while (remaining > 0) {
+            long skipped = inputStream.skip(remaining);
+            if (skipped <= 0) {
+                if (inputStream.read() == -1) {
+                    throw new EOFException("Unexpected end of the archive");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+}
@@ -36,6 +36,13 @@ public class Constants {
     public static final String UNABLE_TO_RENDER_THE_DEFINITION_ERROR = "Unable to render this definition, " +
             "The provided definition does not specify a valid version field.";
 
+    public static final int VALIDATION_TIMEOUT_ERROR_CODE = 900790;
+    public static final String VALIDATION_TIMEOUT_ERROR_MESSAGE = "Validation of the definition exceeded the time " +
+            "limit";
+    public static final int VALIDATION_MEMORY_LIMIT_ERROR_CODE = 900791;
+    public static final String VALIDATION_MEMORY_LIMIT_ERROR_MESSAGE = "Validation of the definition exceeded the " +
+            "memory limit";
+
     public static final String UNABLE_TO_LOAD_REMOTE_REFERENCE = "Unable to load RELATIVE ref:";
 
     public static final String SCHEMA_REF_PATH = "#/components/schemas/";
@@ -0,0 +1,101 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time limit of the validation of a single definition. A guard is started on the validating thread for each
+ * definition, and the resolvers check it as they resolve each reference and schema, which is where the parser spends
+ * its time on pathological definitions such as long allOf chains or cyclic references. Once the time limit is
+ * exceeded, the next check stops the validation of the definition by throwing a {@link LimitExceededError}.
+ * <p>
+ * The parser catches and reports every exception thrown while a definition is parsed, hence the validation is stopped
+ * with an error, which is only caught where the validation of the definition was started.
+ */
+public class DefinitionGuard implements AutoCloseable {
+    private static final ThreadLocal<DefinitionGuard> current = new ThreadLocal<>();
+    private static volatile long timeoutMillis;
+
+    private final long deadline;
+    private final DefinitionGuard previous;
+
+    private DefinitionGuard(long deadline, DefinitionGuard previous) {
+        this.deadline = deadline;
+        this.previous = previous;
+    }
+
+    /**
+     * @param millis time the validation of a definition may take, or 0 if the time is not limited
+     */
+    public static void setTimeoutMillis(long millis) {
+        timeoutMillis = millis;
+    }
+
+    public static long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Start the guard of a definition on the current thread.
+     * @return guard to be closed once the definition is validated
+     */
+    public static DefinitionGuard start() {
+        long millis = timeoutMillis;
+        DefinitionGuard guard = new DefinitionGuard(millis > 0
+                ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis) : 0, current.get());
+        current.set(guard);
+        return guard;
+    }
+
+    /**
+     * Stop the validation of the definition being validated by the current thread if it has exceeded its time limit.
+     * @throws LimitExceededError if the time limit is exceeded
+     */
+    public static void check() {
+        DefinitionGuard guard = current.get();
+        if (guard != null && guard.deadline != 0 && System.nanoTime() - guard.deadline > 0) {
+            throw new LimitExceededError("Validation of the definition was stopped after " + timeoutMillis
+                    + " ms");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (previous != null) {
+            current.set(previous);
+        } else {
+            current.remove();
+        }
+    }
+
+    /**
+     * Thrown when the validation of a definition exceeds its time limit.
+     */
+    public static class LimitExceededError extends Error {
+        private static final long serialVersionUID = 1L;
+
+        LimitExceededError(String message) {
+            // the stack trace is not used, the definition is reported with the message alone
+            super(message, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * The version and the title of a definition, read from the top level fields of a definition file with a streaming
+ * parser. The rest of the definition is skipped token by token, so that the header of a definition can be read
+ * without building the JSON tree of the whole definition.
+ */
+public class DefinitionHeader {
+    private String openapi;
+    private String swagger;
+    private String title;
+
+    /**
+     * @param definitionPath definition file
+     * @return header of the definition, with the fields that could be read before the end of the top level object
+     * or the first syntax error
+     * @throws IOException if the file cannot be read
+     */
+    public static DefinitionHeader read(Path definitionPath) throws IOException {
+        try (InputStream inputStream = DefinitionParser.openDefinition(definitionPath)) {
+            return read(inputStream);
+        }
+    }
+
+    /**
+     * @param content definition content
+     * @return header of the definition, with the fields that could be read before the end of the top level object
+     * or the first syntax error
+     */
+    public static DefinitionHeader read(byte[] content) {
+        try {
+            return read(new ByteArrayInputStream(content));
+        } catch (IOException e) {
+            return new DefinitionHeader();
+        }
+    }
+
+    private static DefinitionHeader read(InputStream inputStream) throws IOException {
+        DefinitionHeader header = new DefinitionHeader();
+        try (JsonParser parser = DefinitionParser.createParser(inputStream)) {
+            if (parser == null || parser.nextToken() != JsonToken.START_OBJECT) {
+                return header;
+            }
+            while (!header.isComplete() && parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+                if ("openapi".equals(fieldName) && valueToken.isScalarValue()) {
+                    header.openapi = parser.getText();
+                } else if ("swagger".equals(fieldName) && valueToken.isScalarValue()) {
+                    header.swagger = parser.getText();
+                } else if ("info".equals(fieldName) && valueToken == JsonToken.START_OBJECT) {
+                    header.title = readTitle(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // the header is only used to describe the definition, syntax errors are reported by the validation
+        }
+        return header;
+    }
+
+    private static String readTitle(JsonParser parser) throws IOException {
+        String title = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            if ("title".equals(fieldName) && valueToken.isScalarValue()) {
+                title = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return title;
+    }
+
+    private boolean isComplete() {
+        return (openapi != null || swagger != null) && title != null;
+    }
+
+    /**
+     * @return specification given by the version fields, the same way the version is detected from the full
+     * definition
+     */
+    public Constants.SwaggerVersion getSpecification() {
+        if (openapi != null && openapi.startsWith("3.")) {
+            return Constants.SwaggerVersion.OPEN_API;
+        }
+        if (swagger != null) {
+            return Constants.SwaggerVersion.SWAGGER;
+        }
+        return Constants.SwaggerVersion.ERROR;
+    }
+
+    /**
+     * @return value of the openapi or swagger field, or null if neither of the fields was found
+     */
+    public String getSpecificationVersion() {
+        return getSpecification() == Constants.SwaggerVersion.OPEN_API ? openapi : swagger;
+    }
+
+    /**
+     * @return title of the definition, or null if the title was not found
+     */
+    public String getTitle() {
+        return title;
+    }
+}
@@ -0,0 +1,589 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.swagger.models.Swagger;
+import io.swagger.parser.util.SwaggerDeserializationResult;
+import io.swagger.parser.util.SwaggerDeserializer;
+import io.swagger.v3.core.util.Yaml;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import io.swagger.v3.parser.converter.SwaggerConverter;
+import io.swagger.v3.parser.core.models.ParseOptions;
+import io.swagger.v3.parser.core.models.SwaggerParseResult;
+import io.swagger.v3.parser.reference.DereferencerContext;
+import io.swagger.v3.parser.reference.OpenAPI31Traverser;
+import io.swagger.v3.parser.reference.OpenAPIDereferencer31;
+import io.swagger.v3.parser.reference.Reference;
+import io.swagger.v3.parser.reference.ReferenceVisitor;
+import io.swagger.v3.parser.reference.Traverser;
+import io.swagger.v3.parser.reference.Visitor;
+import io.swagger.v3.parser.util.DeserializationUtils;
+import io.swagger.v3.parser.util.InlineModelResolver;
+import io.swagger.v3.parser.util.ResolverFully;
+import org.apache.commons.lang3.StringUtils;
+import org.yaml.snakeyaml.LoaderOptions;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Deserializes a definition into a JSON tree once and runs the swagger-parser stages on that tree.
+ * The stages mirror what OpenAPIV3Parser.readContents, OpenAPIParser.readContents and SwaggerParser.parse do with
+ * the raw definition string, without each of them deserializing the string again.
+ */
+public class DefinitionParser {
+    private static final String EMPTY_DEFINITION_MSG = "Null or empty definition";
+    private static final String EMPTY_SWAGGER_MSG = "empty or null swagger supplied";
+    private static final String INVALID_SWAGGER_FORMAT_MSG = "Definition does not appear to be a valid Swagger format";
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final JsonFactory YAML_FACTORY = createStreamingYamlFactory();
+
+    /**
+     * Deserialize the given definition into a JSON tree, the same way the OpenAPI V3 parser does.
+     * @param apiDefinition Swagger or OpenAPI definition
+     * @return parsed definition
+     */
+    public static ParsedDefinition parse(String apiDefinition) {
+        return parse(apiDefinition, true);
+    }
+
+    /**
+     * @param apiDefinition Swagger or OpenAPI definition
+     * @param detectVersion whether the definition is validated, hence YAML is deserialized with the strict mapper of
+     *                      the version detection as well
+     * @return parsed definition
+     */
+    private static ParsedDefinition parse(String apiDefinition, boolean detectVersion) {
+        List<String> messages = new ArrayList<>();
+        if (apiDefinition == null || apiDefinition.trim().isEmpty()) {
+            return new ParsedDefinition(MissingNode.getInstance(), messages, null, true);
+        }
+        SwaggerParseResult deserializationResult = new SwaggerParseResult();
+        JsonNode rootNode;
+        if (DeserializationUtils.isJson(apiDefinition)) {
+            // same as DeserializationUtils.deserializeIntoTree, which creates a new JSON mapper for every definition
+            try {
+                rootNode = ParserContext.getJsonMapper().readTree(apiDefinition);
+            } catch (Exception e) {
+                return new ParsedDefinition(null, messages, getByteSourceException(apiDefinition, e), false);
+            }
+            return new ParsedDefinition(rootNode, messages, null, false);
+        }
+        // the version detection deserializes the bytes of a YAML definition with the strict YAML mapper, which fails
+        // the definitions with duplicate keys and names the definition as a byte array source in its errors
+        JsonNode detectionNode = null;
+        if (detectVersion) {
+            try {
+                detectionNode = ParserContext.getYamlMapper().readTree(apiDefinition.getBytes());
+            } catch (Exception e) {
+                return new ParsedDefinition(null, messages, e, false);
+            }
+        }
+        try {
+            rootNode = DeserializationUtils.readYamlTree(apiDefinition, ParserContext.getDeserializationOptions(),
+                    deserializationResult);
+        } catch (Exception e) {
+            // same tree as the YAML mapper the OpenAPI V3 parser falls back to when snakeyaml cannot load the content
+            try {
+                rootNode = detectionNode != null ? detectionNode
+                        : ParserContext.getYamlMapper().readTree(apiDefinition);
+            } catch (Exception ex) {
+                return new ParsedDefinition(null, messages, ex, false);
+            }
+        }
+        if (deserializationResult.getMessages() != null) {
+            messages.addAll(deserializationResult.getMessages());
+        }
+        return new ParsedDefinition(rootNode, messages, null, false);
+    }
+
+    /**
+     * The version detection used to deserialize the bytes of the definition in the default charset, hence its error
+     * named the definition as a byte array source and counted the columns in bytes. The error is reported the same
+     * way by deserializing the same bytes again, which is only done for malformed definitions.
+     * @param apiDefinition JSON definition that could not be deserialized
+     * @param e             error of the deserialization of the definition
+     * @return error of the deserialization of the bytes of the definition
+     */
+    private static Exception getByteSourceException(String apiDefinition, Exception e) {
+        try {
+            ParserContext.getJsonMapper().readTree(apiDefinition.getBytes());
+        } catch (Exception bytesException) {
+            return bytesException;
+        }
+        return e;
+    }
+
+    /**
+     * Deserialize the given definition file into a JSON tree. Files up to the YAML code point limit of the OpenAPI
+     * V3 parser are read into a string and deserialized the same way as {@link #parse(String)}. Larger files are
+     * deserialized straight from the file with the Jackson JSON or YAML parser, so that the content is not held as a
+     * byte array, a string and, for YAML, an intermediate object tree and JSON string on top of the JSON tree.
+     * @param definitionPath Swagger or OpenAPI definition file
+     * @return parsed definition
+     * @throws IOException if the file cannot be read
+     */
+    public static ParsedDefinition parse(Path definitionPath) throws IOException {
+        return parseFile(definitionPath).withLocation(definitionPath);
+    }
+
+    private static ParsedDefinition parseFile(Path definitionPath) throws IOException {
+        if (Files.size(definitionPath) <= getStreamingThreshold()) {
+            return parse(new String(Files.readAllBytes(definitionPath), StandardCharsets.UTF_8));
+        }
+        try (InputStream inputStream = openDefinition(definitionPath)) {
+            return parse(inputStream);
+        }
+    }
+
+    /**
+     * Deserialize the given definition content, such as an entry of an archive, into a JSON tree. Content up to the
+     * YAML code point limit of the OpenAPI V3 parser is deserialized the same way as {@link #parse(String)}, larger
+     * content the same way as a large definition file.
+     * @param content Swagger or OpenAPI definition content
+     * @return parsed definition
+     */
+    public static ParsedDefinition parse(byte[] content) {
+        if (content.length <= getStreamingThreshold()) {
+            return parse(new String(content, StandardCharsets.UTF_8));
+        }
+        try {
+            return parse(new ByteArrayInputStream(content));
+        } catch (IOException e) {
+            return new ParsedDefinition(null, new ArrayList<>(), e, false);
+        }
+    }
+
+    private static ParsedDefinition parse(InputStream inputStream) throws IOException {
+        List<String> messages = new ArrayList<>();
+        int firstCharacter = peekFirstCharacter(inputStream);
+        if (firstCharacter == -1) {
+            return new ParsedDefinition(MissingNode.getInstance(), messages, null, true);
+        }
+        // same format detection as DeserializationUtils.isJson, YAML content is read with the mapper the OpenAPI
+        // V3 parser falls back to when snakeyaml cannot load the content
+        ObjectMapper mapper = firstCharacter == '{' ? ParserContext.getJsonMapper() : Yaml.mapper();
+        try (JsonParser parser = (firstCharacter == '{' ? mapper.getFactory() : YAML_FACTORY)
+                .createParser(inputStream)) {
+            // duplicate keys fail large YAML definitions the same way as the version detection of smaller ones
+            parser.enable(JsonParser.Feature.STRICT_DUPLICATE_DETECTION);
+            JsonNode rootNode = mapper.readTree(parser);
+            return new ParsedDefinition(rootNode != null ? rootNode : MissingNode.getInstance(), messages, null,
+                    false);
+        } catch (JsonProcessingException e) {
+            return new ParsedDefinition(null, messages, e, false);
+        }
+    }
+
+    /**
+     * @return size in bytes above which definition files are deserialized straight from the file, the YAML code
+     * point limit of the OpenAPI V3 parser, as larger YAML content is rejected by snakeyaml in any case
+     */
+    static long getStreamingThreshold() {
+        return DeserializationUtils.getOptions().getMaxYamlCodePoints();
+    }
+
+    /**
+     * @param definitionPath definition file
+     * @return buffered stream of the file content
+     * @throws IOException if the file cannot be opened
+     */
+    static InputStream openDefinition(Path definitionPath) throws IOException {
+        return new BufferedInputStream(Files.newInputStream(definitionPath), STREAM_BUFFER_SIZE);
+    }
+
+    /**
+     * @param inputStream definition content
+     * @return streaming JSON or YAML parser over the content, or null if the content is blank
+     * @throws IOException if the content cannot be read
+     */
+    static JsonParser createParser(InputStream inputStream) throws IOException {
+        int firstCharacter = peekFirstCharacter(inputStream);
+        if (firstCharacter == -1) {
+            return null;
+        }
+        return (firstCharacter == '{' ? JSON_FACTORY : YAML_FACTORY).createParser(inputStream);
+    }
+
+    /**
+     * @return YAML factory for the streaming parsers, without the code point limit of snakeyaml as the size of the
+     * definitions read from files is bounded by the heap budget of the tool instead
+     */
+    private static JsonFactory createStreamingYamlFactory() {
+        LoaderOptions loaderOptions = new LoaderOptions();
+        loaderOptions.setCodePointLimit(Integer.MAX_VALUE);
+        return YAMLFactory.builder().loaderOptions(loaderOptions).build();
+    }
+
+    /**
+     * Skip the leading white space of the content.
+     * @param inputStream definition content, positioned at the returned character
+     * @return first character that is not white space, or -1 if the content is blank
+     * @throws IOException if the content cannot be read
+     */
+    private static int peekFirstCharacter(InputStream inputStream) throws IOException {
+        while (true) {
+            inputStream.mark(1);
+            int character = inputStream.read();
+            if (character == -1 || character > ' ') {
+                inputStream.reset();
+                return character;
+            }
+        }
+    }
+
+    /**
+     * Parse the definition as an OpenAPI 3 definition. Equivalent to OpenAPIV3Parser.readContents.
+     * @param definition parsed definition
+     * @param options    parse options
+     * @return parse result
+     */
+    public static SwaggerParseResult readOpenAPI(ParsedDefinition definition, ParseOptions options) {
+        if (definition.isEmpty()) {
+            return SwaggerParseResult.ofError(EMPTY_DEFINITION_MSG);
+        }
+        if (definition.getParseException() != null) {
+            return SwaggerParseResult.ofError(getParseErrorMessage(definition.getParseException()));
+        }
+        try {
+            SwaggerParseResult result = ParserContext.getOpenAPIParser().parseJsonNode(null,
+                    getOpenAPIDeserializationNode(definition.getRootNode()), options);
+            if (result.getOpenAPI() != null) {
+                resolveOpenAPI(result, definition, options);
+            }
+            for (String message : definition.getDeserializationMessages()) {
+                result.message(getParseErrorMessage(message));
+            }
+            return result;
+        } catch (Exception e) {
+            return SwaggerParseResult.ofError(getParseErrorMessage(e));
+        }
+    }
+
+    /**
+     * Parse the definition with the OpenAPI 3 parser and fall back to the Swagger 2 converter if it is not an
+     * OpenAPI 3 definition. Equivalent to OpenAPIParser.readContents.
+     * @param definition parsed definition
+     * @param options    parse options
+     * @return parse result
+     */
+    public static SwaggerParseResult readSwagger(ParsedDefinition definition, ParseOptions options) {
+        // the OpenAPI 3 result is discarded unless it has a model, which it only has for OpenAPI 3.0 and 3.1
+        if (isOpenAPI3(definition.getRootNode())) {
+            SwaggerParseResult output = readOpenAPI(definition, options);
+            if (output != null && output.getOpenAPI() != null) {
+                return output;
+            }
+        }
+        return convertSwagger(definition, options, options);
+    }
+
+    /**
+     * Parse the definition the same way as {@link #readOpenAPI(ParsedDefinition, ParseOptions)} with the OpenAPI
+     * validation options, resolving it only as far as the outcome of the validation depends on it. The references of
+     * the definition are resolved to find the missing and the unreadable ones, but the definition is not resolved
+     * fully, which only inlines the resolved references into the model without adding messages.
+     * @param definition parsed definition
+     * @return parse result
+     */
+    public static SwaggerParseResult readOpenAPILazily(ParsedDefinition definition) {
+        return readOpenAPI(definition, ParserContext.getReferenceOptions());
+    }
+
+    /**
+     * Parse the definition the same way as {@link #readSwagger(ParsedDefinition, ParseOptions)} with the Swagger
+     * validation options, resolving it only as far as the outcome of the validation depends on it. OpenAPI 3
+     * definitions are parsed as in {@link #readOpenAPILazily(ParsedDefinition)}.
+     * <p>
+     * The outcome of a Swagger 2 definition depends on its full resolution, as a reference that cannot be resolved
+     * fails the whole definition, and the missing references are only reported once the fully resolved definition is
+     * converted to OpenAPI 3 and parsed again. Only that last parse is made without resolving the definition fully
+     * and flattening it, which restructure the model without adding messages.
+     * @param definition parsed definition
+     * @return parse result
+     */
+    public static SwaggerParseResult readSwaggerLazily(ParsedDefinition definition) {
+        if (isOpenAPI3(definition.getRootNode())) {
+            SwaggerParseResult output = readOpenAPILazily(definition);
+            if (output != null && output.getOpenAPI() != null) {
+                return output;
+            }
+        }
+        return convertSwagger(definition, ParserContext.getSwaggerValidationOptions(),
+                ParserContext.getReferenceOptions());
+    }
+
+    /**
+     * @param rootNode JSON tree of the definition, or null if it could not be deserialized
+     * @return whether the OpenAPI 3 parser reads the definition into a model, which it only does for objects with an
+     * openapi field starting with 3.0 or 3.1
+     */
+    public static boolean isOpenAPI3(JsonNode rootNode) {
+        if (rootNode == null || !rootNode.isObject()) {
+            return false;
+        }
+        JsonNode openapi = rootNode.get("openapi");
+        if (openapi == null || !openapi.isValueNode() || openapi.isNull()) {
+            return false;
+        }
+        String version = openapi.asText();
+        return version.startsWith("3.0") || version.startsWith("3.1");
+    }
+
+    /**
+     * The OpenAPI 3 deserializer converts the whole tree into a map before it reads the openapi field, and stops right
+     * after the openapi field of the definitions that are not OpenAPI 3.0 or 3.1. Such definitions are deserialized
+     * from their openapi field alone, which gives the same result and messages without converting the whole tree.
+     * @param rootNode JSON tree of the definition
+     * @return tree to be passed to the OpenAPI 3 deserializer
+     */
+    private static JsonNode getOpenAPIDeserializationNode(JsonNode rootNode) {
+        if (!rootNode.isObject() || isOpenAPI3(rootNode)) {
+            return rootNode;
+        }
+        ObjectNode versionNode = ParserContext.getJsonMapper().createObjectNode();
+        JsonNode openapi = rootNode.get("openapi");
+        if (openapi != null) {
+            versionNode.set("openapi", openapi);
+        }
+        return versionNode;
+    }
+
+    /**
+     * Parse and resolve the definition as a Swagger 2 definition. Equivalent to SwaggerParser.parse.
+     * @param definition parsed definition
+     * @return Swagger model, or null if the definition is not a Swagger 2 definition
+     */
+    public static Swagger parseSwagger(ParsedDefinition definition) {
+        JsonNode rootNode = definition.getRootNode();
+        if (rootNode == null || rootNode.get("swagger") == null) {
+            return null;
+        }
+        Swagger swagger = new SwaggerDeserializer().deserialize(rootNode).getSwagger();
+        if (swagger == null) {
+            return null;
+        }
+        return new SwaggerReferenceResolver(swagger, definition.getLocation(),
+                definition.isDetached(), ParserContext.getExternalDocumentCache()).resolve();
+    }
+
+    /**
+     * @param definition       parsed definition
+     * @param options          parse options
+     * @param roundTripOptions options the converted definition is parsed again with, if it is flattened
+     * @return parse result
+     */
+    private static SwaggerParseResult convertSwagger(ParsedDefinition definition, ParseOptions options,
+                                                     ParseOptions roundTripOptions) {
+        SwaggerConverter converter = new SwaggerConverter();
+        SwaggerDeserializationResult result = deserializeSwagger(definition, options.isResolve());
+        if (options.isResolve()) {
+            result.setSwagger(new SwaggerReferenceResolver(result.getSwagger(), definition.getLocation(),
+                    definition.isDetached(), ParserContext.getExternalDocumentCache()).resolve());
+        }
+        SwaggerParseResult out = converter.convert(result);
+        if (out != null && out.getOpenAPI() != null) {
+            if (options.isResolveFully()) {
+                new GuardedResolverFully(options.isResolveCombinators()).resolveFully(out.getOpenAPI());
+            }
+            if (options.isFlatten()) {
+                DefinitionGuard.check();
+                try {
+                    // same as OpenAPIV3Parser.readContents without a location, with the resolvers of the definition,
+                    // which check its time limit; the converted definition of a file is resolved against the working
+                    // folder as the parser does, the one of a detached definition is kept detached
+                    ParsedDefinition convertedDefinition = parse(Yaml.pretty(out.getOpenAPI()), false);
+                    SwaggerParseResult resultV3 = readOpenAPI(definition.isDetached() ? convertedDefinition
+                            : convertedDefinition.withLocation(null), roundTripOptions);
+                    out.setOpenAPI(resultV3.getOpenAPI());
+                    if (out.getMessages() != null) {
+                        out.getMessages().addAll(resultV3.getMessages());
+                        out.messages(out.getMessages().stream().distinct().collect(Collectors.toList()));
+                    } else {
+                        out.messages(resultV3.getMessages());
+                    }
+                } catch (Exception ignore) {
+                    // same as the Swagger converter, the unflattened definition is returned
+                }
+            }
+        }
+        return out;
+    }
+
+    private static SwaggerDeserializationResult deserializeSwagger(ParsedDefinition definition, boolean resolve) {
+        if (definition.isEmpty()) {
+            return new SwaggerDeserializationResult().message(EMPTY_SWAGGER_MSG);
+        }
+        if (definition.getRootNode() == null) {
+            return new SwaggerDeserializationResult().message(Constants.MALFORMED_SWAGGER_ERROR);
+        }
+        try {
+            SwaggerDeserializationResult result = ParserContext.getSwaggerParser().readWithInfo(
+                    definition.getRootNode());
+            if (result == null) {
+                return new SwaggerDeserializationResult().message(INVALID_SWAGGER_FORMAT_MSG);
+            }
+            if (resolve) {
+                result.setSwagger(new SwaggerReferenceResolver(result.getSwagger(), definition.getLocation(),
+                        definition.isDetached(), ParserContext.getExternalDocumentCache()).resolve());
+            }
+            return result;
+        } catch (Exception e) {
+            return new SwaggerDeserializationResult().message(Constants.MALFORMED_SWAGGER_ERROR);
+        }
+    }
+
+    private static void resolveOpenAPI(SwaggerParseResult result, ParsedDefinition definition, ParseOptions options) {
+        Path location = definition.getLocation();
+        try {
+            if (options.isResolve() || options.isResolveFully()) {
+                String version = result.getOpenAPI().getOpenapi();
+                if (version != null && version.startsWith("3.1")) {
+                    if (StringUtils.isBlank(System.getenv(OpenAPIV3Parser.DISABLE_OAS31_RESOLVE))) {
+                        DereferencerContext dereferencerContext = new DereferencerContext(result, null,
+                                location != null ? location.toString() : null, options, null, null, true);
+                        // the dereferencer registered with the parser keeps the definition being dereferenced in
+                        // its fields, hence each definition is dereferenced with its own instance
+                        OpenAPIDereferencer31 dereferencer = definition.isDetached() ? new DetachedDereferencer31()
+                                : new GuardedDereferencer31();
+                        dereferencer.dereference(dereferencerContext, Collections.emptyIterator());
+                        if (options.isResolveFully()) {
+                            new GuardedResolverFully(options.isResolveCombinators())
+                                    .resolveFully(result.getOpenAPI());
+                        }
+                    } else {
+                        result.getMessages().add("Resolution of OAS 3.1 spec disabled by 'disableOas31Resolve' " +
+                                "env variable");
+                    }
+                } else {
+                    new OpenAPIReferenceResolver(result.getOpenAPI(), location, definition.isDetached(), options,
+                            ParserContext.getExternalDocumentCache()).resolve(result);
+                    if (options.isResolveFully()) {
+                        new GuardedResolverFully(options.isResolveCombinators()).resolveFully(result.getOpenAPI());
+                    }
+                }
+            }
+            if (options.isFlatten() && result.getOpenAPI() != null) {
+                DefinitionGuard.check();
+                new InlineModelResolver(options.isFlattenComposedSchemas(), options.isCamelCaseFlattenNaming(),
+                        options.isSkipMatches()).flatten(result.getOpenAPI());
+            }
+        } catch (Exception e) {
+            result.getMessages().add(e.getMessage());
+        }
+    }
+
+    private static String getParseErrorMessage(Exception e) {
+        if (e instanceof JsonProcessingException) {
+            return getParseErrorMessage(((JsonProcessingException) e).getOriginalMessage());
+        }
+        return getParseErrorMessage(e.getMessage());
+    }
+
+    private static String getParseErrorMessage(String originalMessage) {
+        if (originalMessage == null) {
+            return "Unable to parse `null`";
+        }
+        if (originalMessage.startsWith("Duplicate field")) {
+            return originalMessage + " in `null`";
+        }
+        return originalMessage;
+    }
+
+    /**
+     * Fully resolves the schemas of a definition the same way as ResolverFully, checking the time limit of the
+     * definition for each schema, as long allOf chains and cyclic schemas can keep the resolver busy for minutes.
+     */
+    private static class GuardedResolverFully extends ResolverFully {
+        GuardedResolverFully(boolean aggregateCombinators) {
+            super(aggregateCombinators);
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public Schema resolveSchema(Schema schema) {
+            DefinitionGuard.check();
+            return super.resolveSchema(schema);
+        }
+    }
+
+    /**
+     * Dereferences an OpenAPI 3.1 definition the same way as OpenAPIDereferencer31, checking the time limit of the
+     * definition for each schema it traverses, as cyclic and deeply nested schemas can keep the dereferencer busy for
+     * minutes.
+     */
+    private static class GuardedDereferencer31 extends OpenAPIDereferencer31 {
+        @Override
+        public Traverser buildTraverser(DereferencerContext context) {
+            return new OpenAPI31Traverser(context) {
+                @Override
+                @SuppressWarnings("rawtypes")
+                public Schema traverseSchema(Schema schema, ReferenceVisitor visitor, List<String> inheritedIds) {
+                    DefinitionGuard.check();
+                    return super.traverseSchema(schema, visitor, inheritedIds);
+                }
+            };
+        }
+    }
+
+    /**
+     * Dereferences an OpenAPI 3.1 definition that has no folder to resolve its relative references against, reporting
+     * the files it references as documents that cannot be loaded instead of reading them relative to the working
+     * folder. URLs are read as usual.
+     */
+    private static class DetachedDereferencer31 extends GuardedDereferencer31 {
+        @Override
+        public Visitor buildReferenceVisitor(DereferencerContext context, Reference reference, Traverser traverser) {
+            return new ReferenceVisitor(reference, (OpenAPI31Traverser) traverser, new HashSet<>(), new HashMap<>()) {
+                @Override
+                public String readFile(String uri) {
+                    throw new RuntimeException(ExternalDocumentCache.getDetachedReferenceMessage(uri));
+                }
+
+                @Override
+                public String readClasspath(String uri) {
+                    throw new RuntimeException(ExternalDocumentCache.getDetachedReferenceMessage(uri));
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the log output and the validation counters of a single definition while it is validated by a worker
+ * thread. Once the definition is complete, the log output is written as one block, so that the output of definitions
+ * validated in parallel does not interleave, and the counters are added to the summary of the run. When no report is
+ * open on the current thread, messages are written straight to the logger.
+ * <p>
+ * In the quiet mode, informational messages are dropped and only the errors, the warnings and the per-definition
+ * summary lines are written.
+ */
+public class DefinitionReport {
+    private static final ThreadLocal<DefinitionReport> current = new ThreadLocal<>();
+    private static final Object flushLock = new Object();
+    private static volatile boolean quiet;
+
+    private final Logger log;
+    private final boolean recordAll;
+    private final List<Entry> entries = new ArrayList<>();
+    private final ValidationSummary counts = new ValidationSummary();
+    private final long[] stageNanos = new long[ValidationMetrics.Stage.values().length];
+
+    private DefinitionReport(Logger log, boolean recordAll) {
+        this.log = log;
+        this.recordAll = recordAll;
+    }
+
+    /**
+     * Start collecting the log output and the counters of the definition validated by the current thread.
+     * @param log logger the collected messages will be written to
+     * @return report of the definition
+     */
+    public static DefinitionReport open(Logger log) {
+        return open(log, false);
+    }
+
+    /**
+     * Start collecting the log output and the counters of the definition validated by the current thread.
+     * @param log       logger the collected messages will be written to
+     * @param recordAll whether messages of disabled levels are collected as well, which is required when the
+     *                  collected messages are cached and replayed by a later run
+     * @return report of the definition
+     */
+    public static DefinitionReport open(Logger log, boolean recordAll) {
+        DefinitionReport report = new DefinitionReport(log, recordAll);
+        current.set(report);
+        return report;
+    }
+
+    /**
+     * @param quietMode whether informational messages are dropped
+     */
+    public static void setQuiet(boolean quietMode) {
+        quiet = quietMode;
+    }
+
+    public static boolean isQuiet() {
+        return quiet;
+    }
+
+    /**
+     * Callers building informational messages should check this first, so that the messages are not built when they
+     * would be dropped.
+     * @param log logger
+     * @return whether informational messages are collected or written
+     */
+    public static boolean isInfoEnabled(Logger log) {
+        DefinitionReport report = current.get();
+        if (report != null && report.recordAll) {
+            return true;
+        }
+        return !quiet && log.isInfoEnabled();
+    }
+
+    /**
+     * @return report open on the current thread, or null if there is none
+     */
+    public static DefinitionReport current() {
+        return current.get();
+    }
+
+    /**
+     * Close the report of the current thread, write the collected messages as one block and add the collected
+     * counters to the given summary.
+     * @param summary summary of the validation run
+     */
+    public static void close(ValidationSummary summary) {
+        DefinitionReport report = current.get();
+        current.remove();
+        if (report != null) {
+            report.flush();
+            summary.add(report.counts);
+        }
+    }
+
+    /**
+     * Close the report of the current thread without writing the collected messages or adding the collected
+     * counters to a summary, for callers reporting the result of the definition themselves.
+     */
+    public static void discard() {
+        current.remove();
+    }
+
+    /**
+     * Messages are written with {@link Object#toString()}, which is only called once the message is written and the
+     * level of the message is enabled, so that the log lines of validation errors are not built when nobody reads them.
+     * @param log     logger
+     * @param message message of the definition
+     */
+    public static void info(Logger log, Object message) {
+        if (!isInfoEnabled(log)) {
+            return;
+        }
+        DefinitionReport report = current.get();
+        if (report == null) {
+            log.info(message.toString());
+        } else {
+            report.entries.add(new Entry(Level.INFO, message, null));
+        }
+    }
+
+    /**
+     * Per-definition summary line, which is written in the quiet mode as well.
+     * @param log     logger
+     * @param message summary of the definition
+     */
+    public static void summary(Logger log, Object message) {
+        DefinitionReport report = current.get();
+        if (report == null) {
+            if (log.isInfoEnabled()) {
+                log.info(message.toString());
+            }
+        } else {
+            report.entries.add(new Entry(Level.SUMMARY, message, null));
+        }
+    }
+
+    public static void warn(Logger log, Object message) {
+        DefinitionReport report = current.get();
+        if (report == null) {
+            if (log.isWarnEnabled()) {
+                log.warn(message.toString());
+            }
+        } else {
+            report.entries.add(new Entry(Level.WARN, message, null));
+        }
+    }
+
+    public static void error(Logger log, Object message) {
+        error(log, message, null);
+    }
+
+    public static void error(Logger log, Object message, Throwable throwable) {
+        DefinitionReport report = current.get();
+        if (report == null) {
+            if (log.isErrorEnabled()) {
+                log.error(message.toString(), throwable);
+            }
+        } else {
+            report.entries.add(new Entry(Level.ERROR, message, throwable));
+        }
+    }
+
+    /**
+     * @return validation counters of this definition
+     */
+    public ValidationSummary getCounts() {
+        return counts;
+    }
+
+    /**
+     * @param stage validation stage of this definition
+     * @param nanos time spent in the stage
+     */
+    void addStageTime(ValidationMetrics.Stage stage, long nanos) {
+        stageNanos[stage.ordinal()] += nanos;
+    }
+
+    /**
+     * @return time spent in each validation stage of this definition, indexed by the ordinal of the stage
+     */
+    long[] getStageNanos() {
+        return stageNanos.clone();
+    }
+
+    /**
+     * @return number of messages collected so far
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @param fromIndex index of the first message to return
+     * @return messages collected from the given index onwards
+     */
+    public List<Entry> getEntries(int fromIndex) {
+        return new ArrayList<>(entries.subList(fromIndex, entries.size()));
+    }
+
+    /**
+     * Add messages and counters recorded for an earlier validation of the same definition.
+     * @param recordedEntries messages recorded earlier
+     * @param recordedCounts  counters recorded earlier
+     */
+    public void replay(List<Entry> recordedEntries, ValidationSummary recordedCounts) {
+        entries.addAll(recordedEntries);
+        counts.add(recordedCounts);
+    }
+
+    private void flush() {
+        synchronized (flushLock) {
+            for (Entry entry : entries) {
+                switch (entry.level) {
+                    case INFO:
+                        if (!quiet && log.isInfoEnabled()) {
+                            log.info(entry.getMessage());
+                        }
+                        break;
+                    case SUMMARY:
+                        if (log.isInfoEnabled()) {
+                            log.info(entry.getMessage());
+                        }
+                        break;
+                    case WARN:
+                        if (log.isWarnEnabled()) {
+                            log.warn(entry.getMessage());
+                        }
+                        break;
+                    default:
+                        if (log.isErrorEnabled()) {
+                            log.error(entry.getMessage(), entry.throwable);
+                        }
+                        break;
+                }
+            }
+        }
+    }
+
+    public enum Level {
+        SUMMARY,
+        INFO,
+        WARN,
+        ERROR,
+    }
+
+    /**
+     * A log message of the definition.
+     */
+    public static class Entry {
+        private final Level level;
+        private final Object message;
+        private final Throwable throwable;
+
+        public Entry(Level level, Object message, Throwable throwable) {
+            this.level = level;
+            this.message = message;
+            this.throwable = throwable;
+        }
+
+        public Level getLevel() {
+            return level;
+        }
+
+        public String getMessage() {
+            return message.toString();
+        }
+
+        public Throwable getThrowable() {
+            return throwable;
+        }
+    }
+}
@@ -0,0 +1,467 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the validator resident once a location is validated and validates the definitions of the location again
+ * whenever they change, so that a definition being edited is validated without paying for the JVM startup, the class
+ * loading of the parsers and a cold JIT on every save.
+ * <p>
+ * Changes are collected until the location has been quiet for the debounce delay, so that an editor saving a file in
+ * several writes, or a checkout changing many files, triggers a single validation. Only the changed definitions and
+ * the definitions referencing a changed file, directly or through other referenced files, are validated again, and
+ * only the changes in their results are logged.
+ */
+public class DefinitionWatcher implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(DefinitionWatcher.class);
+
+    private final Path location;
+    private final Path root;
+    private final int validationLevel;
+    private final long delayMillis;
+    private final FileDiscovery fileDiscovery;
+    private final WatchService watchService;
+    private final ExecutorService executor;
+    private final Map<WatchKey, Path> watchedFolders = new ConcurrentHashMap<>();
+    private final Map<Path, ValidationResult> results = new ConcurrentHashMap<>();
+    /** Files referenced by each definition, directly or through other referenced files. */
+    private final Map<Path, Set<Path>> referencedFiles = new ConcurrentHashMap<>();
+    /** Files directly referenced by each definition or referenced file, read once until the file changes. */
+    private final Map<Path, List<Path>> directReferences = new ConcurrentHashMap<>();
+
+    /**
+     * @param location        swagger file or folder being validated
+     * @param validationLevel swagger validation level[0,1,2,3]
+     * @param threads         number of worker threads used to validate the changed definitions
+     * @param delayMillis     time the location has to be quiet for before the changes are validated
+     * @param fileDiscovery   discovery of the definitions of the location
+     * @throws IOException if the file system of the location cannot be watched
+     */
+    public DefinitionWatcher(Path location, int validationLevel, int threads, long delayMillis,
+                             FileDiscovery fileDiscovery) throws IOException {
+        this.location = location.toAbsolutePath().normalize();
+        this.root = Files.isDirectory(this.location) ? this.location : this.location.getParent();
+        this.validationLevel = validationLevel;
+        this.delayMillis = delayMillis;
+        this.fileDiscovery = fileDiscovery;
+        this.watchService = this.location.getFileSystem().newWatchService();
+        this.executor = Executors.newFixedThreadPool(threads, new WatcherThreadFactory());
+    }
+
+    /**
+     * @param reportWriter writer of the report of the run, or null if no report is requested
+     * @return writer recording the results of the run as the results the changes are compared with, before passing
+     * them on to the given writer
+     */
+    public ResultWriter recordResults(ResultWriter reportWriter) {
+        return new ResultWriter() {
+            @Override
+            public void write(ValidationResult result) throws IOException {
+                results.put(normalize(result.getSource()), result);
+                if (reportWriter != null) {
+                    reportWriter.write(result);
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (reportWriter != null) {
+                    reportWriter.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Watch the location and validate the changes until the watcher is closed. The definitions recorded from the
+     * run are indexed first, to find the definitions referencing each file.
+     */
+    public void run() {
+        try {
+            watchFolders();
+            submitAll(new ArrayList<>(results.keySet()),
+                    definition -> referencedFiles.put(definition, findReferencedFiles(definition)));
+            log.info("Watching " + results.size() + " definitions in " + location + " for changes, press Ctrl+C "
+                    + "to stop.");
+            while (true) {
+                Set<Path> changedPaths = new LinkedHashSet<>();
+                boolean overflow = collectChanges(watchService.take(), changedPaths);
+                WatchKey watchKey;
+                while ((watchKey = watchService.poll(delayMillis, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collectChanges(watchKey, changedPaths);
+                }
+                validateChanges(changedPaths, overflow);
+            }
+        } catch (ClosedWatchServiceException | RejectedExecutionException e) {
+            // the watcher was closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param watchKey     key of a watched folder with pending events
+     * @param changedPaths changed files and folders collected so far
+     * @return whether events were lost, in which case every definition has to be validated again
+     */
+    private boolean collectChanges(WatchKey watchKey, Set<Path> changedPaths) {
+        Path folder = watchedFolders.get(watchKey);
+        boolean overflow = false;
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+            } else if (folder != null) {
+                changedPaths.add(folder.resolve((Path) event.context()));
+            }
+        }
+        if (!watchKey.reset()) {
+            // the folder was deleted
+            watchedFolders.remove(watchKey);
+        }
+        return overflow;
+    }
+
+    /**
+     * Validate the definitions affected by the changes and log the changes in their results.
+     * @param changedPaths changed files and folders
+     * @param overflow     whether events were lost, in which case every definition is validated again
+     * @throws InterruptedException if the watcher is stopped while the definitions are validated
+     */
+    private void validateChanges(Set<Path> changedPaths, boolean overflow) throws InterruptedException {
+        long startTime = System.nanoTime();
+        for (Path changedPath : changedPaths) {
+            ParserContext.getExternalDocumentCache().invalidate(changedPath);
+            directReferences.keySet().removeIf(file -> file.startsWith(changedPath));
+        }
+        if (overflow) {
+            directReferences.clear();
+        }
+        Set<Path> definitions = watchFolders();
+        List<String> changes = new ArrayList<>();
+        for (Iterator<Path> iterator = results.keySet().iterator(); iterator.hasNext(); ) {
+            Path definition = iterator.next();
+            if (!definitions.contains(definition)) {
+                iterator.remove();
+                referencedFiles.remove(definition);
+                changes.add("Removed " + getName(definition));
+            }
+        }
+        List<Path> affectedDefinitions = new ArrayList<>();
+        for (Path definition : definitions) {
+            if (overflow || !results.containsKey(definition) || isAffected(definition, changedPaths)) {
+                affectedDefinitions.add(definition);
+            }
+        }
+        Map<Path, ValidationResult> previousResults = new HashMap<>();
+        for (Path definition : affectedDefinitions) {
+            ValidationResult previousResult = results.get(definition);
+            if (previousResult != null) {
+                previousResults.put(definition, previousResult);
+            }
+        }
+        submitAll(affectedDefinitions, definition -> {
+            results.put(definition, SwaggerTool.revalidateSwaggerFile(definition, validationLevel));
+            referencedFiles.put(definition, findReferencedFiles(definition));
+        });
+        for (Path definition : affectedDefinitions) {
+            String change = describeChange(getName(definition), previousResults.get(definition),
+                    results.get(definition));
+            if (change != null) {
+                changes.add(change);
+            }
+        }
+        if (affectedDefinitions.isEmpty() && changes.isEmpty()) {
+            return;
+        }
+        for (String change : changes) {
+            log.info(change);
+        }
+        log.info("Changes validated in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)
+                + " ms. Validated again: " + affectedDefinitions.size() + ", Results changed: " + changes.size()
+                + ". " + countStatuses());
+    }
+
+    /**
+     * Walk the location, watching the folders walked, including the folders created since the last walk.
+     * @return definitions currently found in the location
+     */
+    private Set<Path> watchFolders() {
+        Set<Path> definitions = new TreeSet<>();
+        if (!Files.isDirectory(location)) {
+            watchFolder(root);
+        }
+        fileDiscovery.discover(location, file -> definitions.add(file.toAbsolutePath().normalize()),
+                this::watchFolder);
+        return definitions;
+    }
+
+    private void watchFolder(Path folder) {
+        try {
+            // a folder that is already watched keeps its key
+            watchedFolders.put(folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE),
+                    folder.toAbsolutePath().normalize());
+        } catch (IOException e) {
+            log.warn("Error occurred while watching the folder " + folder + ", hence the changes in the folder will "
+                    + "not be validated. " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param definition   definition of the location
+     * @param changedPaths changed files and folders
+     * @return whether the definition, or a file it references, is one of the changed files or in a changed folder
+     */
+    private boolean isAffected(Path definition, Set<Path> changedPaths) {
+        Set<Path> files = referencedFiles.getOrDefault(definition, Collections.emptySet());
+        for (Path changedPath : changedPaths) {
+            if (definition.startsWith(changedPath)) {
+                return true;
+            }
+            for (Path file : files) {
+                if (file.startsWith(changedPath)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find the files a definition references with relative references, and the files they reference in turn. The
+     * folders of the referenced files are watched as well, as they may be outside the location or excluded from it.
+     * @param definition definition of the location
+     * @return referenced files, including the ones that do not exist yet
+     */
+    private Set<Path> findReferencedFiles(Path definition) {
+        Set<Path> files = new LinkedHashSet<>();
+        Deque<Path> pending = new ArrayDeque<>();
+        pending.push(definition);
+        while (!pending.isEmpty()) {
+            for (Path file : directReferences.computeIfAbsent(pending.pop(), DefinitionWatcher::readReferences)) {
+                if (!file.equals(definition) && files.add(file)) {
+                    pending.push(file);
+                    Path folder = file.getParent();
+                    if (folder != null && !watchedFolders.containsValue(folder) && Files.isDirectory(folder)) {
+                        watchFolder(folder);
+                    }
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @param file definition or referenced file
+     * @return files referenced by the relative references of the file, or none if the file cannot be read
+     */
+    private static List<Path> readReferences(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return Collections.emptyList();
+        }
+        JsonNode rootNode;
+        try {
+            rootNode = DefinitionParser.parse(file).getRootNode();
+        } catch (IOException | RuntimeException e) {
+            return Collections.emptyList();
+        }
+        if (rootNode == null) {
+            return Collections.emptyList();
+        }
+        List<Path> files = new ArrayList<>();
+        for (RefIndex.Ref ref : RefIndex.build(rootNode).getRefs(RefIndex.RefType.RELATIVE)) {
+            String text = ref.getText();
+            int fragmentIndex = text.indexOf('#');
+            String document = fragmentIndex >= 0 ? text.substring(0, fragmentIndex) : text;
+            if (document.isEmpty()) {
+                continue;
+            }
+            try {
+                files.add(file.resolveSibling(document).normalize());
+            } catch (RuntimeException e) {
+                // not a valid path, the validators report the reference
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @param name           name of the definition
+     * @param previousResult earlier result of the definition, or null if the definition is new
+     * @param result         result of the definition
+     * @return description of the change in the result, or null if the result has not changed
+     */
+    private static String describeChange(String name, ValidationResult previousResult, ValidationResult result) {
+        if (result == null) {
+            return null;
+        }
+        List<String> errors = toStrings(result.getErrors());
+        if (previousResult == null) {
+            StringBuilder change = new StringBuilder("Added ").append(name).append(", Status: ")
+                    .append(result.getStatus());
+            appendErrors(change, "\n  + ", errors);
+            return change.toString();
+        }
+        List<String> previousErrors = toStrings(previousResult.getErrors());
+        List<String> newErrors = subtract(errors, previousErrors);
+        List<String> fixedErrors = subtract(previousErrors, errors);
+        if (previousResult.getStatus() == result.getStatus() && newErrors.isEmpty() && fixedErrors.isEmpty()) {
+            return null;
+        }
+        StringBuilder change = new StringBuilder("Changed ").append(name).append(", Status: ");
+        if (previousResult.getStatus() != result.getStatus()) {
+            change.append(previousResult.getStatus()).append(" -> ");
+        }
+        change.append(result.getStatus());
+        appendErrors(change, "\n  + ", newErrors);
+        appendErrors(change, "\n  - ", fixedErrors);
+        return change.toString();
+    }
+
+    private static List<String> toStrings(List<ValidationError> errors) {
+        List<String> strings = new ArrayList<>(errors.size());
+        for (ValidationError error : errors) {
+            strings.add(error.toString());
+        }
+        return strings;
+    }
+
+    /**
+     * @return the errors of the first list that are not in the second one, each occurrence counted separately
+     */
+    private static List<String> subtract(List<String> errors, List<String> otherErrors) {
+        List<String> remaining = new ArrayList<>(otherErrors);
+        List<String> difference = new ArrayList<>();
+        for (String error : errors) {
+            if (!remaining.remove(error)) {
+                difference.add(error);
+            }
+        }
+        return difference;
+    }
+
+    private static void appendErrors(StringBuilder change, String prefix, List<String> errors) {
+        for (String error : errors) {
+            change.append(prefix).append(error);
+        }
+    }
+
+    private String countStatuses() {
+        Map<ValidationResult.Status, Integer> counts = new EnumMap<>(ValidationResult.Status.class);
+        for (ValidationResult result : results.values()) {
+            counts.merge(result.getStatus(), 1, Integer::sum);
+        }
+        StringBuilder statuses = new StringBuilder("Definitions: ").append(results.size());
+        for (Map.Entry<ValidationResult.Status, Integer> count : counts.entrySet()) {
+            statuses.append(", ").append(count.getKey()).append(": ").append(count.getValue());
+        }
+        return statuses.toString();
+    }
+
+    private String getName(Path definition) {
+        return definition.startsWith(root) && !definition.equals(root) ? root.relativize(definition).toString()
+                : definition.toString();
+    }
+
+    private static Path normalize(String source) {
+        return Paths.get(source).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Run the task for each of the definitions on the worker threads and wait for all of them.
+     * @param definitions definitions of the location
+     * @param task        task run for a definition
+     * @throws InterruptedException if the watcher is stopped while waiting
+     */
+    private void submitAll(List<Path> definitions, Consumer<Path> task) throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>(definitions.size());
+        for (Path definition : definitions) {
+            futures.add(executor.submit(() -> task.accept(definition)));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (ExecutionException e) {
+                log.error("Error occurred while validating the changes of " + definitions.get(i), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Stop watching the location. A validation in progress is interrupted.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.warn("Error occurred while closing the watch service. " + e.getMessage());
+        }
+        executor.shutdownNow();
+    }
+
+    private static class WatcherThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "definition-watcher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
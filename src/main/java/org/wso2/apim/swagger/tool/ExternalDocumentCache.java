@@ -0,0 +1,270 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.parser.core.models.SwaggerParseResult;
+import io.swagger.v3.parser.util.DeserializationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Files and URLs referenced by the definitions of a run, loaded once and shared by the resolvers of all the
+ * definitions, so that a common schema file referenced by every definition of a folder is read and deserialized once
+ * instead of once per definition and reference. The documents are kept until the cache grows over its size, the
+ * least recently used documents are evicted first.
+ * <p>
+ * URLs are read from the mirror folder, if one is given and it has a copy of the URL at
+ * &lt;mirror folder&gt;/&lt;host&gt;/&lt;path&gt;, before falling back to the network.
+ */
+public class ExternalDocumentCache {
+    private static final Logger log = LoggerFactory.getLogger(ExternalDocumentCache.class);
+    /**
+     * Heap held by a cached document, relative to the length of its content. Covers the content string and the JSON
+     * tree of the document.
+     */
+    private static final int HEAP_PER_CHARACTER = 16;
+
+    private final long maxBytes;
+    private final Path mirrorDirectory;
+    private final Map<String, ExternalDocument> documents = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    /**
+     * @param maxBytes        heap the cached documents may use
+     * @param mirrorDirectory folder with local copies of the referenced URLs, or null if the URLs are always read
+     *                        from the network
+     */
+    public ExternalDocumentCache(long maxBytes, Path mirrorDirectory) {
+        this.maxBytes = maxBytes;
+        this.mirrorDirectory = mirrorDirectory;
+    }
+
+    /**
+     * @param url      URL of the document
+     * @param fallback reads the document from the network, if there is no copy of it in the mirror folder
+     * @return document, loaded once for all the definitions referencing it
+     */
+    public ExternalDocument getUrl(String url, Supplier<String> fallback) {
+        Path mirrorFile = getMirrorFile(url);
+        if (mirrorFile != null && Files.isRegularFile(mirrorFile)) {
+            return get(url, () -> readFile(mirrorFile, "URL", url));
+        }
+        return get(url, fallback);
+    }
+
+    /**
+     * @param file            path of the document, relative to the definition
+     * @param parentDirectory folder of the definition, or null if the definition has no folder, in which case the
+     *                        document cannot be loaded
+     * @param fallback        looks for the document the way the parser does, if it is not found next to the
+     *                        definition, e.g. in the class path
+     * @return document, loaded once for all the definitions referencing it if it is found next to the definition
+     */
+    public ExternalDocument getFile(String file, Path parentDirectory, Supplier<String> fallback) {
+        if (parentDirectory == null) {
+            return new ExternalDocument(this, file, () -> {
+                throw new RuntimeException(getDetachedReferenceMessage(file));
+            }, false);
+        }
+        Path path = parentDirectory.resolve(file).normalize();
+        if (Files.isRegularFile(path)) {
+            return get(path.toAbsolutePath().toString(), () -> readFile(path, "RELATIVE", file));
+        }
+        return new ExternalDocument(this, file, fallback, false);
+    }
+
+    /**
+     * @param location definition file, or null if the definition was not read from a file
+     * @param detached whether the definition has no folder to resolve its relative references against
+     * @return folder the relative references of the definition are resolved against, the working folder if the
+     * definition was not read from a file, as in the parser, or null if the definition is detached
+     */
+    static Path getParentDirectory(Path location, boolean detached) {
+        if (detached) {
+            return null;
+        }
+        if (location == null) {
+            return Paths.get(".");
+        }
+        Path parent = location.toAbsolutePath().getParent();
+        return parent != null ? parent : Paths.get(".");
+    }
+
+    /**
+     * @param file referenced file
+     * @return error of a relative reference of a definition that has no folder to resolve it against
+     */
+    static String getDetachedReferenceMessage(String file) {
+        return "Unable to load RELATIVE ref: " + file + ", the definition was not read from a file, hence its "
+                + "relative references cannot be resolved";
+    }
+
+    private ExternalDocument get(String location, Supplier<String> loader) {
+        synchronized (this) {
+            ExternalDocument document = documents.get(location);
+            if (document == null) {
+                document = new ExternalDocument(this, location, loader, true);
+                documents.put(location, document);
+            }
+            return document;
+        }
+    }
+
+    /**
+     * Drop the cached documents of a file that has changed, or of the files of a folder that has changed, so that the
+     * definitions referencing them read them again.
+     * @param path absolute path of the file or the folder
+     */
+    public synchronized void invalidate(Path path) {
+        String file = path.toString();
+        String folder = file.endsWith(File.separator) ? file : file + File.separator;
+        Iterator<ExternalDocument> iterator = documents.values().iterator();
+        while (iterator.hasNext()) {
+            ExternalDocument document = iterator.next();
+            if (document.location.equals(file) || document.location.startsWith(folder)) {
+                iterator.remove();
+                cachedBytes -= document.bytes;
+            }
+        }
+    }
+
+    private synchronized void loaded(ExternalDocument document, long bytes) {
+        if (documents.get(document.location) != document) {
+            return;
+        }
+        document.bytes = bytes;
+        cachedBytes += bytes;
+        Iterator<ExternalDocument> iterator = documents.values().iterator();
+        while (cachedBytes > maxBytes && iterator.hasNext()) {
+            ExternalDocument eldest = iterator.next();
+            if (eldest == document) {
+                continue;
+            }
+            iterator.remove();
+            cachedBytes -= eldest.bytes;
+            if (log.isDebugEnabled()) {
+                log.debug("Evicted the external document " + eldest.location + " from the cache");
+            }
+        }
+    }
+
+    private Path getMirrorFile(String url) {
+        if (mirrorDirectory == null) {
+            return null;
+        }
+        try {
+            URL parsedUrl = new URL(url);
+            String path = parsedUrl.getPath().startsWith("/") ? parsedUrl.getPath().substring(1)
+                    : parsedUrl.getPath();
+            Path mirrorFile = mirrorDirectory.resolve(parsedUrl.getHost()).resolve(path).normalize();
+            // a URL escaping the mirror folder with ".." segments is read from the network
+            return mirrorFile.startsWith(mirrorDirectory.normalize()) ? mirrorFile : null;
+        } catch (MalformedURLException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String readFile(Path path, String refFormat, String file) {
+        try {
+            return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // same message as the parser, the validators report the reference as a remote reference to be verified
+            throw new RuntimeException("Unable to load " + refFormat + " ref: " + file + " path: " + path, e);
+        }
+    }
+
+    /**
+     * A referenced file or URL. The content is loaded and deserialized on first use, by one of the definitions
+     * referencing it, while the others wait for it.
+     */
+    public static class ExternalDocument {
+        private final ExternalDocumentCache cache;
+        private final String location;
+        private final boolean cached;
+        private Supplier<String> loader;
+        private String contents;
+        private JsonNode tree;
+        private List<String> messages;
+        private long bytes;
+
+        private ExternalDocument(ExternalDocumentCache cache, String location, Supplier<String> loader,
+                                 boolean cached) {
+            this.cache = cache;
+            this.location = location;
+            this.loader = loader;
+            this.cached = cached;
+        }
+
+        /**
+         * @return content of the document
+         * @throws RuntimeException if the document cannot be loaded, with the message of the parser
+         */
+        public synchronized String getContents() {
+            if (contents == null) {
+                contents = loader.get();
+                loader = null;
+                if (cached) {
+                    cache.loaded(this, (long) contents.length() * HEAP_PER_CHARACTER);
+                }
+            }
+            return contents;
+        }
+
+        /**
+         * @return JSON tree of the document, which is shared by all the definitions and must not be modified
+         */
+        public synchronized JsonNode getTree() {
+            if (tree == null) {
+                SwaggerParseResult deserializationResult = new SwaggerParseResult();
+                tree = DeserializationUtils.deserializeIntoTree(getContents(), location,
+                        ParserContext.getDeserializationOptions(), deserializationResult);
+                messages = deserializationResult.getMessages() != null
+                        ? new ArrayList<>(deserializationResult.getMessages()) : Collections.emptyList();
+            }
+            return tree;
+        }
+
+        /**
+         * @return messages reported while deserializing YAML content
+         */
+        public synchronized List<String> getMessages() {
+            getTree();
+            return messages;
+        }
+    }
+}
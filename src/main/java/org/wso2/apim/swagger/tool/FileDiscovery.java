@@ -0,0 +1,254 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Finds the swagger files to be validated in a folder with a single walk of the folder tree, handing each candidate
+ * file to the validator as soon as it is found. Only the files matching the include patterns and none of the exclude
+ * patterns are validated, hidden files and folders are skipped unless requested and symbolic links to folders are
+ * only followed if requested.
+ * <p>
+ * Patterns are glob patterns. A pattern without a '/' is matched against the name of the file or the folder, any
+ * other pattern against the path relative to the folder being validated, e.g. "*.json" or "apis/v1/*.yaml".
+ * An excluded folder is not walked at all.
+ * <p>
+ * When the location is validated in shards, only the files assigned to the shard of the run are validated.
+ */
+public class FileDiscovery {
+    private static final Logger log = LoggerFactory.getLogger(FileDiscovery.class);
+    private static final List<String> DEFAULT_INCLUDES = Collections.unmodifiableList(
+            Arrays.asList("*.json", "*.yaml", "*.yml"));
+
+    private final List<String> includes;
+    private final List<String> excludes;
+    private final int maxDepth;
+    private final boolean followLinks;
+    private final boolean includeHidden;
+    private final Shard shard;
+    private final List<GlobPattern> entryIncludePatterns;
+    private final List<GlobPattern> entryExcludePatterns;
+
+    /**
+     * Discovery of the JSON and YAML files of a folder tree, skipping the hidden files and folders and without
+     * following the symbolic links to folders.
+     */
+    public FileDiscovery() {
+        this(DEFAULT_INCLUDES, Collections.emptyList(), Integer.MAX_VALUE, false, false, Shard.ALL);
+    }
+
+    /**
+     * @param includes      glob patterns of the files to be validated, the JSON and YAML files if empty
+     * @param excludes      glob patterns of the files and the folders to be skipped
+     * @param maxDepth      number of folder levels below the given folder to look for files in
+     * @param followLinks   whether the symbolic links to folders are followed
+     * @param includeHidden whether the hidden files and folders are validated as well
+     * @param shard         shard of the run, the files assigned to other shards are skipped
+     */
+    public FileDiscovery(List<String> includes, List<String> excludes, int maxDepth, boolean followLinks,
+                         boolean includeHidden, Shard shard) {
+        this.includes = includes.isEmpty() ? DEFAULT_INCLUDES : includes;
+        this.excludes = excludes;
+        this.maxDepth = maxDepth;
+        this.followLinks = followLinks;
+        this.includeHidden = includeHidden;
+        this.shard = shard;
+        this.entryIncludePatterns = GlobPattern.compile(FileSystems.getDefault(), this.includes);
+        this.entryExcludePatterns = GlobPattern.compile(FileSystems.getDefault(), excludes);
+    }
+
+    /**
+     * @param location  swagger file or the folder to look for swagger files, a file given directly is always validated
+     *                  unless it is assigned to another shard
+     * @param consumer  consumer of the discovered swagger files
+     */
+    public void discover(Path location, Consumer<Path> consumer) {
+        discover(location, consumer, folder -> { });
+    }
+
+    /**
+     * @param location       swagger file or the folder to look for swagger files
+     * @param consumer       consumer of the discovered swagger files
+     * @param folderConsumer consumer of the folders walked to find them, including the given folder, the hidden and
+     *                       the excluded folders are not walked
+     */
+    public void discover(Path location, Consumer<Path> consumer, Consumer<Path> folderConsumer) {
+        if (Files.isRegularFile(location)) {
+            if (shard.isAssigned(location.getFileName())) {
+                consumer.accept(location);
+            }
+        } else if (Files.isDirectory(location)) {
+            Set<FileVisitOption> visitOptions = followLinks ? EnumSet.of(FileVisitOption.FOLLOW_LINKS)
+                    : EnumSet.noneOf(FileVisitOption.class);
+            try {
+                // the files are found at depth maxDepth + 1, the folders at that depth are not walked
+                Files.walkFileTree(location, visitOptions, maxDepth == Integer.MAX_VALUE ? maxDepth : maxDepth + 1,
+                        new SwaggerFileVisitor(location, consumer, folderConsumer));
+            } catch (IOException e) {
+                log.error("Error occurred while reading the folder from the give location " + location + ", hence " +
+                        "the files in the folder will not be validated. ", e);
+            }
+        } else {
+            log.error("Error occurred while reading the provided file/folder, " +
+                    "please verify the file/folder availability");
+        }
+    }
+
+    /**
+     * Apply the same rules to an entry of an archive, as if the archive was extracted into the folder being
+     * validated. An entry is skipped if any of its folders is hidden or excluded.
+     * @param entryPath path of the entry relative to the root of the archive
+     * @return whether the entry is to be validated
+     */
+    public boolean accepts(Path entryPath) {
+        int nameCount = entryPath.getNameCount();
+        if (nameCount - 1 > maxDepth) {
+            return false;
+        }
+        for (int i = 1; i < nameCount; i++) {
+            Path folder = entryPath.subpath(0, i);
+            if ((!includeHidden && isHidden(folder)) || matches(folder, folder, entryExcludePatterns)) {
+                return false;
+            }
+        }
+        return (includeHidden || !isHidden(entryPath)) && matches(entryPath, entryPath, entryIncludePatterns)
+                && !matches(entryPath, entryPath, entryExcludePatterns) && shard.isAssigned(entryPath);
+    }
+
+    /**
+     * @param lineNumber line a definition of a stream of definitions starts at
+     * @return whether the definition is validated by the shard of the run
+     */
+    public boolean accepts(int lineNumber) {
+        return shard.isAssigned(Integer.toString(lineNumber));
+    }
+
+    private static boolean matches(Path path, Path relativePath, List<GlobPattern> patterns) {
+        for (GlobPattern pattern : patterns) {
+            if (pattern.matches(path, relativePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isHidden(Path path) {
+        return path.getFileName().toString().startsWith(".");
+    }
+
+    private class SwaggerFileVisitor extends SimpleFileVisitor<Path> {
+        private final Path root;
+        private final Consumer<Path> consumer;
+        private final Consumer<Path> folderConsumer;
+        private final List<GlobPattern> includePatterns;
+        private final List<GlobPattern> excludePatterns;
+
+        SwaggerFileVisitor(Path root, Consumer<Path> consumer, Consumer<Path> folderConsumer) {
+            this.root = root;
+            this.consumer = consumer;
+            this.folderConsumer = folderConsumer;
+            this.includePatterns = GlobPattern.compile(root.getFileSystem(), includes);
+            this.excludePatterns = GlobPattern.compile(root.getFileSystem(), excludes);
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            if (!dir.equals(root) && ((!includeHidden && isHidden(dir)) || matches(dir, excludePatterns))) {
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+            folderConsumer.accept(dir);
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            // without following the links, a link to a file is still validated and a link to a folder is skipped
+            if (attrs.isSymbolicLink() ? !Files.isRegularFile(file) : !attrs.isRegularFile()) {
+                return FileVisitResult.CONTINUE;
+            }
+            if ((!includeHidden && isHidden(file)) || !matches(file, includePatterns)
+                    || matches(file, excludePatterns) || !shard.isAssigned(root.relativize(file))) {
+                return FileVisitResult.CONTINUE;
+            }
+            consumer.accept(file);
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException e) {
+            if (e instanceof FileSystemLoopException) {
+                log.error("Symbolic link loop found at " + file + ", hence the folder will not be validated again.");
+            } else {
+                log.error("Error occurred while reading the folder from the give location " + file + ", hence " +
+                        "the files in the folder will not be validated. ", e);
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        private boolean matches(Path path, List<GlobPattern> patterns) {
+            return FileDiscovery.matches(path, root.relativize(path), patterns);
+        }
+    }
+
+    private static class GlobPattern {
+        private final PathMatcher matcher;
+        private final boolean nameOnly;
+
+        private GlobPattern(PathMatcher matcher, boolean nameOnly) {
+            this.matcher = matcher;
+            this.nameOnly = nameOnly;
+        }
+
+        static List<GlobPattern> compile(FileSystem fileSystem, List<String> patterns) {
+            List<GlobPattern> globPatterns = new ArrayList<>(patterns.size());
+            for (String pattern : patterns) {
+                globPatterns.add(new GlobPattern(fileSystem.getPathMatcher("glob:" + pattern),
+                        pattern.indexOf('/') < 0));
+            }
+            return globPatterns;
+        }
+
+        boolean matches(Path path, Path relativePath) {
+            return matcher.matches(nameOnly ? path.getFileName() : relativePath);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+/**
+ * Bounds the heap used by the definitions validated at the same time. Each definition reserves an estimate of the
+ * heap it needs, derived from the size of the definition file, before it is parsed, and waits while the reservations
+ * of the other definitions leave no room for it. A definition estimated to need more than the whole budget is either
+ * validated alone, once every other reservation is released, or rejected if the budget is enforced. Definitions
+ * estimated to need more than the heap limit of a single definition, if one is given, are rejected as well.
+ */
+public class HeapBudget {
+    /**
+     * Heap needed to validate a definition, relative to the size of the definition file. Covers the JSON tree, the
+     * models and the resolved copies of the models built by the validators. Swagger 2 definitions are also converted
+     * to OpenAPI 3 and serialized again by the validator, hence they need considerably more heap.
+     */
+    private static final int HEAP_PER_OPENAPI_BYTE = 32;
+    private static final int HEAP_PER_SWAGGER_BYTE = 80;
+    private static final double DEFAULT_HEAP_RATIO = 0.6;
+    /** Largest definition that can be held in a byte array. */
+    private static final long MAX_DEFINITION_BYTES = Integer.MAX_VALUE - 8;
+
+    private final long limitBytes;
+    private final boolean enforced;
+    private final long definitionLimitBytes;
+    private long reservedBytes;
+
+    private HeapBudget(long limitBytes, boolean enforced, long definitionLimitBytes) {
+        this.limitBytes = limitBytes;
+        this.enforced = enforced;
+        this.definitionLimitBytes = definitionLimitBytes;
+    }
+
+    /**
+     * @param limitBytes heap the definitions validated at the same time may use
+     * @return budget that rejects the definitions estimated to need more than the whole budget
+     */
+    public static HeapBudget enforced(long limitBytes) {
+        return new HeapBudget(limitBytes, true, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return budget of a share of the maximum heap of the JVM, which validates the definitions estimated to need
+     * more than the whole budget alone
+     */
+    public static HeapBudget ofMaxHeap() {
+        return new HeapBudget((long) (Runtime.getRuntime().maxMemory() * DEFAULT_HEAP_RATIO), false, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param bytes heap a single definition may be estimated to need
+     * @return budget of the same size, which also rejects the definitions estimated to need more than the given heap
+     */
+    public HeapBudget withDefinitionLimit(long bytes) {
+        return new HeapBudget(limitBytes, enforced, bytes);
+    }
+
+    /**
+     * @param fileSize      size of the definition file in bytes
+     * @param specification specification of the definition, or null if it is not known
+     * @return estimated heap needed to validate the definition
+     */
+    public static long estimate(long fileSize, Constants.SwaggerVersion specification) {
+        return fileSize * (specification == Constants.SwaggerVersion.OPEN_API ? HEAP_PER_OPENAPI_BYTE
+                : HEAP_PER_SWAGGER_BYTE);
+    }
+
+    /**
+     * @param estimatedBytes estimated heap needed to validate a definition
+     * @return whether the definition may be validated within this budget
+     */
+    public boolean allows(long estimatedBytes) {
+        return estimatedBytes <= getDefinitionLimitBytes();
+    }
+
+    public long getLimitBytes() {
+        return limitBytes;
+    }
+
+    /**
+     * @return heap a single definition may be estimated to need, the enforced budget or the limit of a definition
+     */
+    public long getDefinitionLimitBytes() {
+        return Math.min(enforced ? limitBytes : Long.MAX_VALUE, definitionLimitBytes);
+    }
+
+    /**
+     * @return size of the largest definition that may be validated within this budget, whatever its specification,
+     * so that larger definitions can be skipped without being read into memory
+     */
+    public long getMaxDefinitionBytes() {
+        return Math.min(getDefinitionLimitBytes() / HEAP_PER_OPENAPI_BYTE, MAX_DEFINITION_BYTES);
+    }
+
+    /**
+     * @return size of the largest definition that may be read into memory before the heap it needs can be estimated,
+     * such as a posted definition, so that reading it leaves room for validating it within the whole budget
+     */
+    public long getMaxBufferedBytes() {
+        return Math.min(getMaxDefinitionBytes(), limitBytes / HEAP_PER_OPENAPI_BYTE);
+    }
+
+    /**
+     * Reserve heap for a definition, waiting until the other reservations leave enough room for it. A definition
+     * estimated to need more than the whole budget waits for all the other reservations to be released.
+     * @param estimatedBytes estimated heap needed to validate the definition
+     * @return reservation to be closed once the definition is validated
+     */
+    public Reservation reserve(long estimatedBytes) {
+        long bytes = Math.min(estimatedBytes, limitBytes);
+        synchronized (this) {
+            try {
+                while (reservedBytes > 0 && reservedBytes + bytes > limitBytes) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                // the definition is validated without waiting any longer, the interrupt is left for the caller
+                Thread.currentThread().interrupt();
+            }
+            reservedBytes += bytes;
+        }
+        return new Reservation(bytes);
+    }
+
+    private synchronized void release(long bytes) {
+        reservedBytes -= bytes;
+        notifyAll();
+    }
+
+    /**
+     * Heap reserved for a definition being validated.
+     */
+    public class Reservation implements AutoCloseable {
+        private final long bytes;
+
+        private Reservation(long bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void close() {
+            release(bytes);
+        }
+    }
+}
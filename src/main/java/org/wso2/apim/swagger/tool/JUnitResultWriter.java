@@ -0,0 +1,115 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Writes the validation results as a JUnit XML report, one test case per definition, so that CI servers can show
+ * the invalid definitions as failed tests. Definitions that are not valid are reported as failures carrying the
+ * validation errors. The test cases are streamed as the definitions are validated, hence the test suite does not
+ * carry the test and failure counts.
+ */
+public class JUnitResultWriter implements ResultWriter {
+    private static final String TEST_SUITE_NAME = "swagger-validation";
+
+    private final OutputStream outputStream;
+    private final XMLStreamWriter xmlWriter;
+
+    /**
+     * @param outputPath report file
+     * @throws IOException if the report file cannot be created
+     */
+    public JUnitResultWriter(Path outputPath) throws IOException {
+        this.outputStream = new BufferedOutputStream(Files.newOutputStream(outputPath));
+        try {
+            this.xmlWriter = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream,
+                    StandardCharsets.UTF_8.name());
+            xmlWriter.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            xmlWriter.writeCharacters("\n");
+            xmlWriter.writeStartElement("testsuites");
+            xmlWriter.writeCharacters("\n");
+            xmlWriter.writeStartElement("testsuite");
+            xmlWriter.writeAttribute("name", TEST_SUITE_NAME);
+            xmlWriter.writeCharacters("\n");
+        } catch (XMLStreamException e) {
+            outputStream.close();
+            throw new IOException("Error occurred while creating the JUnit report " + outputPath, e);
+        }
+    }
+
+    @Override
+    public synchronized void write(ValidationResult result) throws IOException {
+        try {
+            xmlWriter.writeStartElement("testcase");
+            xmlWriter.writeAttribute("classname", result.getSpecification() != null ?
+                    result.getSpecification().name() : Constants.SwaggerVersion.ERROR.name());
+            xmlWriter.writeAttribute("name", result.getSource() != null ? result.getSource() :
+                    String.valueOf(result.getName()));
+            if (result.getStatus() != ValidationResult.Status.VALID) {
+                xmlWriter.writeStartElement("failure");
+                xmlWriter.writeAttribute("type", result.getStatus().name());
+                xmlWriter.writeAttribute("message", result.getErrors().isEmpty() ? result.getStatus().name() :
+                        result.getErrors().get(0).toString());
+                for (ValidationError error : result.getErrors()) {
+                    xmlWriter.writeCharacters(error.toString());
+                    xmlWriter.writeCharacters("\n");
+                }
+                xmlWriter.writeEndElement();
+            }
+            if (!result.getRemoteReferences().isEmpty()) {
+                xmlWriter.writeStartElement("system-out");
+                for (String remoteReference : result.getRemoteReferences()) {
+                    xmlWriter.writeCharacters("Remote reference: " + remoteReference + "\n");
+                }
+                xmlWriter.writeEndElement();
+            }
+            xmlWriter.writeEndElement();
+            xmlWriter.writeCharacters("\n");
+        } catch (XMLStreamException e) {
+            throw new IOException("Error occurred while writing the result of " + result.getSource(), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            xmlWriter.writeEndElement();
+            xmlWriter.writeCharacters("\n");
+            xmlWriter.writeEndElement();
+            xmlWriter.writeCharacters("\n");
+            xmlWriter.writeEndDocument();
+            xmlWriter.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Error occurred while completing the JUnit report", e);
+        } finally {
+            outputStream.close();
+        }
+    }
+}
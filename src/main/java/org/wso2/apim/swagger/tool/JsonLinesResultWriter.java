@@ -0,0 +1,61 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes each validation result as one JSON object per line (JSON Lines), so that the report can be consumed line by
+ * line while the run is in progress.
+ */
+public class JsonLinesResultWriter implements ResultWriter {
+    private final JsonGenerator generator;
+    private final ObjectMapper mapper;
+
+    /**
+     * @param outputPath report file
+     * @throws IOException if the report file cannot be created
+     */
+    public JsonLinesResultWriter(Path outputPath) throws IOException {
+        this.mapper = new ObjectMapper().disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = mapper.getFactory().createGenerator(new BufferedOutputStream(
+                Files.newOutputStream(outputPath)));
+        generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public synchronized void write(ValidationResult result) throws IOException {
+        mapper.writeValue(generator, result);
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.headers.Header;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.parser.OpenAPIResolver;
+import io.swagger.v3.parser.ResolverCache;
+import io.swagger.v3.parser.core.models.ParseOptions;
+import io.swagger.v3.parser.core.models.SwaggerParseResult;
+import io.swagger.v3.parser.models.RefFormat;
+import io.swagger.v3.parser.processors.ComponentsProcessor;
+import io.swagger.v3.parser.processors.OperationProcessor;
+import io.swagger.v3.parser.processors.PathsProcessor;
+import io.swagger.v3.parser.util.DeserializationUtils;
+import io.swagger.v3.parser.util.OpenAPIDeserializer;
+import io.swagger.v3.parser.util.RefUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves the references of an OpenAPI 3.0 definition the same way as OpenAPIResolver, loading the referenced files
+ * and URLs through the external document cache of the run instead of reading and deserializing them again for every
+ * reference of every definition. Relative references are resolved against the folder of the definition file.
+ */
+public class OpenAPIReferenceResolver {
+    private final OpenAPI openAPI;
+    private final Set<String> resolveValidationMessages = new HashSet<>();
+    private final ComponentsProcessor componentsProcessor;
+    private final PathsProcessor pathsProcessor;
+    private final OperationProcessor operationProcessor;
+
+    /**
+     * @param openAPI    deserialized definition
+     * @param location   definition file, or null if relative references are resolved against the working folder
+     * @param detached   whether the definition has no folder, in which case relative references are not resolved
+     * @param options    parse options
+     * @param documents  referenced files and URLs shared by the definitions of the run
+     */
+    public OpenAPIReferenceResolver(OpenAPI openAPI, Path location, boolean detached, ParseOptions options,
+                                    ExternalDocumentCache documents) {
+        this.openAPI = openAPI;
+        SharedResolverCache cache = new SharedResolverCache(openAPI, location, detached, resolveValidationMessages,
+                options, documents);
+        componentsProcessor = new ComponentsProcessor(openAPI, cache);
+        pathsProcessor = new PathsProcessor(cache, openAPI, new OpenAPIResolver.Settings());
+        operationProcessor = new OperationProcessor(cache, openAPI);
+    }
+
+    /**
+     * @param result parse result the resolved definition and the resolution messages are added to
+     */
+    public void resolve(SwaggerParseResult result) {
+        if (openAPI == null) {
+            return;
+        }
+        pathsProcessor.processPaths();
+        componentsProcessor.processComponents();
+        if (openAPI.getPaths() != null) {
+            for (PathItem pathItem : openAPI.getPaths().values()) {
+                if (pathItem.readOperations() != null) {
+                    for (Operation operation : pathItem.readOperations()) {
+                        operationProcessor.processOperation(operation);
+                    }
+                }
+            }
+        }
+        result.setOpenAPI(openAPI);
+        result.getMessages().addAll(resolveValidationMessages);
+    }
+
+    private static class SharedResolverCache extends ResolverCache {
+        private final Path parentDirectory;
+        private final ExternalDocumentCache documents;
+        private final Set<String> resolveValidationMessages;
+        private final Map<String, Object> resolutionCache = new HashMap<>();
+
+        SharedResolverCache(OpenAPI openAPI, Path location, boolean detached, Set<String> resolveValidationMessages,
+                            ParseOptions options, ExternalDocumentCache documents) {
+            super(openAPI, new ArrayList<>(), location != null ? location.toString() : null,
+                    resolveValidationMessages, options);
+            this.parentDirectory = ExternalDocumentCache.getParentDirectory(location, detached);
+            this.documents = documents;
+            this.resolveValidationMessages = resolveValidationMessages;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T loadRef(String ref, RefFormat refFormat, Class<T> expectedType) {
+            DefinitionGuard.check();
+            if (refFormat == RefFormat.INTERNAL || getParseOptions().isValidateExternalRefs()) {
+                return super.loadRef(ref, refFormat, expectedType);
+            }
+            String[] refParts = ref.split("#/");
+            if (refParts.length > 2) {
+                throw new RuntimeException("Invalid ref format: " + ref);
+            }
+            String file = refParts[0];
+            String definitionPath = refParts.length == 2 ? refParts[1] : null;
+
+            // as in the parser, a resolved header is never reused
+            Object previouslyResolvedEntity = resolutionCache.get(ref);
+            if (previouslyResolvedEntity != null && !expectedType.equals(Header.class)) {
+                return expectedType.cast(previouslyResolvedEntity);
+            }
+
+            ExternalDocumentCache.ExternalDocument document = refFormat == RefFormat.URL
+                    ? documents.getUrl(file, () -> RefUtils.readExternalRef(file, refFormat, new ArrayList<>(),
+                    parentDirectory))
+                    : documents.getFile(file, parentDirectory, () -> RefUtils.readExternalRef(file, refFormat,
+                    new ArrayList<>(), parentDirectory));
+            JsonNode tree = document.getTree();
+            T result;
+            if (definitionPath == null) {
+                result = DeserializationUtils.deserialize(document.getContents(), file, expectedType, openapi31);
+            } else {
+                for (String jsonPathElement : definitionPath.split("/")) {
+                    if (tree.isArray()) {
+                        try {
+                            tree = tree.get(Integer.parseInt(jsonPathElement));
+                        } catch (NumberFormatException e) {
+                            // not an index, the element is not found
+                            tree = null;
+                        }
+                    } else {
+                        tree = tree.get(RefIndex.unescape(jsonPathElement));
+                    }
+                    if (tree == null) {
+                        throw new RuntimeException("Could not find " + definitionPath + " in contents of " + file);
+                    }
+                }
+                if (expectedType.equals(Schema.class)) {
+                    result = (T) new OpenAPIDeserializer().getSchema((ObjectNode) tree,
+                            definitionPath.replace("/", "."), new OpenAPIDeserializer.ParseResult()
+                                    .openapi31(openapi31));
+                } else {
+                    result = DeserializationUtils.deserialize(tree, file, expectedType, openapi31);
+                }
+                updateLocalRefs(file, result);
+            }
+            resolutionCache.put(ref, result);
+            resolveValidationMessages.addAll(document.getMessages());
+            return result;
+        }
+
+        @Override
+        public Map<String, Object> getResolutionCache() {
+            return Collections.unmodifiableMap(resolutionCache);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates the discovered swagger files on a fixed pool of worker threads. The number of files handed over to the
+ * workers is bounded, so {@link #submit(Path)} blocks the discovering thread while the workers are saturated instead
+ * of holding every discovered path in memory. The bound is enforced by the semaphore rather than the capacity of the
+ * work queue, since a worker releases its permit just before it is ready to take the next file.
+ */
+public class ParallelValidator implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ParallelValidator.class);
+    private static final int QUEUED_FILES_PER_THREAD = 4;
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore pendingFiles;
+    private final int validationLevel;
+
+    /**
+     * @param threads         number of worker threads
+     * @param validationLevel swagger validation level[0,1,2,3]
+     */
+    public ParallelValidator(int threads, int validationLevel) {
+        int queueCapacity = threads * QUEUED_FILES_PER_THREAD;
+        this.validationLevel = validationLevel;
+        this.pendingFiles = new Semaphore(threads + queueCapacity);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new WorkerThreadFactory());
+    }
+
+    /**
+     * Queue the given file for validation, waiting for a free slot in the work queue if required.
+     * @param swaggerFilePath path of the swagger file
+     */
+    public void submit(Path swaggerFilePath) {
+        try {
+            pendingFiles.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while queueing the swagger file " + swaggerFilePath + ", hence the file will " +
+                    "not be validated.");
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                SwaggerTool.validateSwaggerFile(swaggerFilePath, validationLevel);
+            } catch (RuntimeException e) {
+                log.error("Error occurred while validating the swagger file " + swaggerFilePath, e);
+            } finally {
+                pendingFiles.release();
+            }
+        });
+    }
+
+    /**
+     * Queue the given definition of a batch input for validation, waiting for a free slot in the work queue if
+     * required, so that no more than a bounded number of definitions read from the input are held in memory.
+     * @param source  name of the definition
+     * @param content content of the definition
+     */
+    public void submit(String source, byte[] content) {
+        try {
+            pendingFiles.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while queueing the swagger definition " + source + ", hence the definition will " +
+                    "not be validated.");
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                SwaggerTool.validateSwaggerEntry(source, content, validationLevel);
+            } catch (RuntimeException e) {
+                log.error("Error occurred while validating the swagger definition " + source, e);
+            } finally {
+                pendingFiles.release();
+            }
+        });
+    }
+
+    /**
+     * Wait until all the queued files are validated and stop the workers.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.debug("Waiting for " + executor.getQueue().size() + " queued swagger files to be validated");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "validator-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A Swagger or OpenAPI definition that has been deserialized into a JSON tree once. The same tree is shared by the
+ * version detection, the Swagger 2 and OpenAPI 3 validators and the remote reference scan.
+ */
+public class ParsedDefinition {
+    private final JsonNode rootNode;
+    private final List<String> deserializationMessages;
+    private final Exception parseException;
+    private final boolean empty;
+    private final Path location;
+    private final boolean detached;
+
+    ParsedDefinition(JsonNode rootNode, List<String> deserializationMessages, Exception parseException,
+                     boolean empty) {
+        this(rootNode, deserializationMessages, parseException, empty, null, true);
+    }
+
+    private ParsedDefinition(JsonNode rootNode, List<String> deserializationMessages, Exception parseException,
+                             boolean empty, Path location, boolean detached) {
+        this.rootNode = rootNode;
+        this.deserializationMessages = deserializationMessages;
+        this.parseException = parseException;
+        this.empty = empty;
+        this.location = location;
+        this.detached = detached;
+    }
+
+    /**
+     * @param location file the definition was read from, or null if the relative references of the definition are
+     *                 resolved against the working folder
+     * @return the same definition, read from the given file
+     */
+    ParsedDefinition withLocation(Path location) {
+        return new ParsedDefinition(rootNode, deserializationMessages, parseException, empty, location, false);
+    }
+
+    /**
+     * @return the same definition, read from an archive, a stream of definitions or a request, which has no folder to
+     * resolve its relative references against
+     */
+    ParsedDefinition detached() {
+        return new ParsedDefinition(rootNode, deserializationMessages, parseException, empty, null, true);
+    }
+
+    /**
+     * @return root node of the definition, a missing node if the definition is empty or null if the definition
+     * could not be deserialized
+     */
+    public JsonNode getRootNode() {
+        return rootNode;
+    }
+
+    /**
+     * @return messages reported while deserializing YAML content, which the OpenAPI parser reports as errors
+     */
+    public List<String> getDeserializationMessages() {
+        return deserializationMessages;
+    }
+
+    /**
+     * @return the error occurred while deserializing the definition, or null if the definition was deserialized
+     */
+    public Exception getParseException() {
+        return parseException;
+    }
+
+    /**
+     * @return whether the given definition was null or blank
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * @return file the definition was read from, which the relative references are resolved against, or null if the
+     * definition was not read from a file
+     */
+    public Path getLocation() {
+        return location;
+    }
+
+    /**
+     * @return whether the definition has no folder to resolve its relative references against, in which case they
+     * are reported as references that cannot be loaded instead of being resolved against the working folder
+     */
+    public boolean isDetached() {
+        return detached;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.parser.Swagger20Parser;
+import io.swagger.v3.parser.ObjectMapperFactory;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import io.swagger.v3.parser.core.models.ParseOptions;
+
+/**
+ * Parser objects shared by the validation of all the definitions of a run, so that they are built once per JVM
+ * instead of once per definition and validator call. Every object held here is thread-safe: the object mappers are
+ * fully configured before they are published, the parsers do not keep any state between calls and the parse options
+ * are never modified after they are built, hence they must only be read by the callers.
+ * <p>
+ * The Swagger 2 deserializer, the Swagger 2 to OpenAPI 3 converter and the resolvers keep the state of the definition
+ * being deserialized, converted or resolved, hence they are still created for every definition. The files and URLs
+ * referenced by the definitions are shared through the external document cache instead.
+ */
+public final class ParserContext {
+    private static final ObjectMapper JSON_MAPPER = ObjectMapperFactory.createJson();
+    private static final ObjectMapper YAML_MAPPER = ObjectMapperFactory.createYaml();
+    private static final OpenAPIV3Parser OPENAPI_PARSER = new OpenAPIV3Parser();
+    private static final Swagger20Parser SWAGGER_PARSER = new Swagger20Parser();
+    private static final ParseOptions DESERIALIZATION_OPTIONS = new ParseOptions();
+    private static final ParseOptions SWAGGER_VALIDATION_OPTIONS = createSwaggerValidationOptions();
+    private static final ParseOptions OPENAPI_VALIDATION_OPTIONS = createOpenAPIValidationOptions();
+    private static final ParseOptions REFERENCE_OPTIONS = createReferenceOptions();
+    private static final long DEFAULT_EXTERNAL_DOCUMENT_CACHE_BYTES = 128L * 1024 * 1024;
+    private static volatile ExternalDocumentCache externalDocumentCache = new ExternalDocumentCache(
+            DEFAULT_EXTERNAL_DOCUMENT_CACHE_BYTES, null);
+
+    private ParserContext() {
+    }
+
+    /**
+     * @return JSON mapper configured as the mapper the OpenAPI V3 parser deserializes JSON definitions with
+     */
+    public static ObjectMapper getJsonMapper() {
+        return JSON_MAPPER;
+    }
+
+    /**
+     * @return YAML mapper configured as the mapper the OpenAPI V3 parser deserializes YAML definitions with
+     */
+    public static ObjectMapper getYamlMapper() {
+        return YAML_MAPPER;
+    }
+
+    public static OpenAPIV3Parser getOpenAPIParser() {
+        return OPENAPI_PARSER;
+    }
+
+    public static Swagger20Parser getSwaggerParser() {
+        return SWAGGER_PARSER;
+    }
+
+    /**
+     * @return default options used to deserialize a definition into a JSON tree
+     */
+    public static ParseOptions getDeserializationOptions() {
+        return DESERIALIZATION_OPTIONS;
+    }
+
+    /**
+     * @return options the Swagger 2 validator parses a definition with
+     */
+    public static ParseOptions getSwaggerValidationOptions() {
+        return SWAGGER_VALIDATION_OPTIONS;
+    }
+
+    /**
+     * @return options the OpenAPI 3 validator parses a definition with
+     */
+    public static ParseOptions getOpenAPIValidationOptions() {
+        return OPENAPI_VALIDATION_OPTIONS;
+    }
+
+    /**
+     * @return options the definitions are parsed with to check their references as well, without resolving them
+     * fully or flattening them
+     */
+    public static ParseOptions getReferenceOptions() {
+        return REFERENCE_OPTIONS;
+    }
+
+    /**
+     * @return files and URLs referenced by the definitions of the run
+     */
+    public static ExternalDocumentCache getExternalDocumentCache() {
+        return externalDocumentCache;
+    }
+
+    /**
+     * Replace the cache of the referenced files and URLs, before any definition is validated.
+     * @param cache files and URLs referenced by the definitions of the run
+     */
+    public static void setExternalDocumentCache(ExternalDocumentCache cache) {
+        externalDocumentCache = cache;
+    }
+
+    private static ParseOptions createSwaggerValidationOptions() {
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        options.setFlatten(true);
+        options.setResolveFully(true);
+        return options;
+    }
+
+    private static ParseOptions createReferenceOptions() {
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        return options;
+    }
+
+    private static ParseOptions createOpenAPIValidationOptions() {
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        options.setResolveFully(true);
+        return options;
+    }
+}
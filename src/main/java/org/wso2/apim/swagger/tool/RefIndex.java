@@ -0,0 +1,259 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the $ref values of a definition, built with a single iterative walk of the JSON tree of the definition.
+ * The walk keeps its own stack instead of recursing, so deeply nested schemas cannot overflow the thread stack, and
+ * the index refers to the value nodes of the tree rather than copying them. The references are listed in document
+ * order, each with the JSON pointer of the object holding the $ref and the kind of the reference.
+ */
+public class RefIndex {
+    private static final String REF_FIELD = "$ref";
+
+    private final List<Ref> refs;
+
+    private RefIndex(List<Ref> refs) {
+        this.refs = refs;
+    }
+
+    /**
+     * Kind of a reference.
+     */
+    public enum RefType {
+        /** A JSON pointer into the same definition, starting with "#/". */
+        LOCAL,
+        /** A file relative to the definition, optionally followed by a pointer into that file. */
+        RELATIVE,
+        /** An absolute URL. */
+        REMOTE,
+    }
+
+    /**
+     * @param rootNode root node of the definition
+     * @return index of the $ref values of the definition
+     */
+    public static RefIndex build(JsonNode rootNode) {
+        List<Ref> refs = new ArrayList<>();
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(rootNode, null, null, -1));
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            if (frame.fields != null) {
+                if (!frame.fields.hasNext()) {
+                    stack.pop();
+                    continue;
+                }
+                Map.Entry<String, JsonNode> field = frame.fields.next();
+                if (REF_FIELD.equals(field.getKey())) {
+                    // the value of a $ref is not walked any further
+                    refs.add(new Ref(frame, field.getValue()));
+                } else if (isWalked(field.getValue())) {
+                    stack.push(new Frame(field.getValue(), frame, field.getKey(), -1));
+                }
+            } else {
+                if (!frame.elements.hasNext()) {
+                    stack.pop();
+                    continue;
+                }
+                JsonNode element = frame.elements.next();
+                int index = frame.elementIndex++;
+                if (isWalked(element)) {
+                    stack.push(new Frame(element, frame, null, index));
+                }
+            }
+        }
+        return new RefIndex(refs);
+    }
+
+    private static boolean isWalked(JsonNode node) {
+        return node.isContainerNode() && node.size() > 0;
+    }
+
+    /**
+     * @return all the references of the definition, in document order
+     */
+    public List<Ref> getRefs() {
+        return Collections.unmodifiableList(refs);
+    }
+
+    /**
+     * @param type kind of the references
+     * @return references of the given kind, in document order
+     */
+    public List<Ref> getRefs(RefType type) {
+        List<Ref> refsOfType = new ArrayList<>();
+        for (Ref ref : refs) {
+            if (ref.getType() == type) {
+                refsOfType.add(ref);
+            }
+        }
+        return refsOfType;
+    }
+
+    /**
+     * @return files and URLs the definition depends on, without the pointers into them, in document order
+     */
+    public Set<String> getExternalDocuments() {
+        Set<String> documents = new LinkedHashSet<>();
+        for (Ref ref : refs) {
+            if (ref.getType() != RefType.LOCAL && ref.getValue().isTextual()) {
+                String text = ref.getText();
+                int fragmentIndex = text.indexOf('#');
+                String document = fragmentIndex >= 0 ? text.substring(0, fragmentIndex) : text;
+                if (!document.isEmpty()) {
+                    documents.add(document);
+                }
+            }
+        }
+        return documents;
+    }
+
+    private static String escape(String token) {
+        if (token.indexOf('~') < 0 && token.indexOf('/') < 0) {
+            return token;
+        }
+        return token.replace("~", "~0").replace("/", "~1");
+    }
+
+    /**
+     * @param token URL encoded token of a JSON pointer, as found in the fragment of a $ref
+     * @return field name or array index the token refers to, decoded the same way as the resolvers of the parser
+     */
+    static String unescape(String token) {
+        try {
+            token = URLDecoder.decode(token, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            // UTF-8 is always supported
+        }
+        return token.replace("~1", "/").replace("~0", "~");
+    }
+
+    /**
+     * A $ref of the definition.
+     */
+    public static class Ref {
+        private final Frame location;
+        private final JsonNode value;
+        private final RefType type;
+
+        Ref(Frame location, JsonNode value) {
+            this.location = location;
+            this.value = value;
+            this.type = classify(value);
+        }
+
+        private static RefType classify(JsonNode value) {
+            String text = value.isTextual() ? value.asText() : "";
+            if (text.startsWith("#/")) {
+                return RefType.LOCAL;
+            }
+            int schemeEnd = text.indexOf("://");
+            if (schemeEnd > 0 && text.indexOf('/') > schemeEnd) {
+                return RefType.REMOTE;
+            }
+            return RefType.RELATIVE;
+        }
+
+        /**
+         * @return JSON pointer of the object holding the $ref, e.g. "/paths/~1pets/get/responses/200/schema"
+         */
+        public String getPointer() {
+            return location.getPointer();
+        }
+
+        /**
+         * @return value node of the $ref, which is a text node unless the definition is invalid
+         */
+        public JsonNode getValue() {
+            return value;
+        }
+
+        /**
+         * @return text of the $ref value
+         */
+        public String getText() {
+            return value.asText();
+        }
+
+        public RefType getType() {
+            return type;
+        }
+    }
+
+    /**
+     * Position of the walk in an object or an array node. The JSON pointer of the node is only built when the pointer
+     * of a $ref found in the node is asked for.
+     */
+    private static class Frame {
+        private final Frame parent;
+        private final String fieldName;
+        private final int arrayIndex;
+        private final Iterator<Map.Entry<String, JsonNode>> fields;
+        private final Iterator<JsonNode> elements;
+        private int elementIndex;
+
+        /**
+         * @param node       object or array node
+         * @param parent     frame of the parent node, or null for the root node
+         * @param fieldName  name of the node in the parent object, or null if the parent is an array
+         * @param arrayIndex index of the node in the parent array
+         */
+        Frame(JsonNode node, Frame parent, String fieldName, int arrayIndex) {
+            this.parent = parent;
+            this.fieldName = fieldName;
+            this.arrayIndex = arrayIndex;
+            this.fields = node.isObject() ? node.fields() : null;
+            this.elements = node.isArray() ? node.elements() : Collections.emptyIterator();
+        }
+
+        String getPointer() {
+            Deque<Frame> path = new ArrayDeque<>();
+            for (Frame frame = this; frame.parent != null; frame = frame.parent) {
+                path.push(frame);
+            }
+            StringBuilder pointer = new StringBuilder();
+            for (Frame frame : path) {
+                pointer.append('/');
+                if (frame.fieldName != null) {
+                    pointer.append(escape(frame.fieldName));
+                } else {
+                    pointer.append(frame.arrayIndex);
+                }
+            }
+            return pointer.toString();
+        }
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of validation results, keyed by a hash of the definition content, the validation level and a
+ * fingerprint of the tool. The fingerprint covers the tool and swagger-parser versions and the error mappings in
+ * {@link Constants}; when it changes, every cached result is dropped. The cache is bounded in size, the least recently
+ * used results are evicted first.
+ */
+public class ResultCache {
+    private static final Logger log = LoggerFactory.getLogger(ResultCache.class);
+    private static final String FINGERPRINT_FILE = "cache.fingerprint";
+    private static final String ENTRY_SUFFIX = ".json";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final long STALE_TEMP_FILE_MILLIS = 60L * 60 * 1000;
+    private static final double EVICTION_TARGET_RATIO = 0.9;
+    private static final int ENTRY_FORMAT_VERSION = 2;
+    private static final int KEY_BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final String fingerprint;
+    /**
+     * Size of the cached results, guarded by the cache, so that a result cached while the results are evicted is
+     * neither lost nor counted twice.
+     */
+    private long sizeBytes;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private ResultCache(Path directory, long maxSizeBytes, String fingerprint) {
+        this.directory = directory;
+        this.maxSizeBytes = maxSizeBytes;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Open the cache in the given directory, dropping the cached results if they were recorded by a different tool
+     * fingerprint.
+     * @param directory    cache directory
+     * @param maxSizeBytes maximum size of the cached results
+     * @return result cache
+     * @throws IOException if the cache directory cannot be prepared
+     */
+    public static ResultCache open(Path directory, long maxSizeBytes) throws IOException {
+        ResultCache cache = new ResultCache(directory, maxSizeBytes, computeFingerprint());
+        Files.createDirectories(directory);
+        Path fingerprintFile = directory.resolve(FINGERPRINT_FILE);
+        String recordedFingerprint = Files.exists(fingerprintFile) ?
+                new String(Files.readAllBytes(fingerprintFile), StandardCharsets.UTF_8).trim() : "";
+        if (!cache.fingerprint.equals(recordedFingerprint)) {
+            if (!recordedFingerprint.isEmpty()) {
+                log.info("Validation tool, swagger-parser or error mappings have changed, hence the cached " +
+                        "validation results are dropped");
+            }
+            for (Path entry : cache.listEntries()) {
+                Files.deleteIfExists(entry);
+            }
+            Files.write(fingerprintFile, cache.fingerprint.getBytes(StandardCharsets.UTF_8));
+        }
+        cache.deleteStaleTempFiles();
+        long size = 0;
+        for (Path entry : cache.listEntries()) {
+            size += Files.size(entry);
+        }
+        synchronized (cache) {
+            cache.sizeBytes = size;
+            cache.evict();
+        }
+        return cache;
+    }
+
+    /**
+     * @param content         definition content
+     * @param validationLevel validation level [0,1,2,3]
+     * @return cache key of the validation result of the given content
+     */
+    public String key(byte[] content, int validationLevel) {
+        MessageDigest digest = sha256();
+        digest.update(fingerprint.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) validationLevel);
+        digest.update(content);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Same key as {@link #key(byte[], int)} for the content of the file, computed while streaming the file.
+     * @param definitionPath  definition file
+     * @param validationLevel validation level [0,1,2,3]
+     * @return cache key of the validation result of the given file content
+     * @throws IOException if the file cannot be read
+     */
+    public String key(Path definitionPath, int validationLevel) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(fingerprint.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) validationLevel);
+        byte[] buffer = new byte[KEY_BUFFER_SIZE];
+        try (InputStream inputStream = Files.newInputStream(definitionPath)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @param key cache key
+     * @return cached result, or null if there is no result cached for the key
+     */
+    public CachedResult get(String key) {
+        Path entryPath = entryPath(key);
+        if (!Files.exists(entryPath)) {
+            return null;
+        }
+        try {
+            JsonNode entry = mapper.readTree(entryPath.toFile());
+            JsonNode counts = entry.get("counts");
+            ValidationSummary recordedCounts = new ValidationSummary(0,
+                    counts.get("validationFailedFileCount").asInt(),
+                    counts.get("validationSuccessFileCount").asInt(),
+                    counts.get("totalMalformedSwaggerFiles").asInt(),
+                    counts.get("totalPartialyPasedSwaggerFiles").asInt());
+            List<DefinitionReport.Entry> recordedEntries = new ArrayList<>();
+            for (JsonNode message : entry.get("messages")) {
+                recordedEntries.add(new DefinitionReport.Entry(
+                        DefinitionReport.Level.valueOf(message.get("level").asText()),
+                        message.get("message").asText(), null));
+            }
+            ValidationResult result = mapper.treeToValue(entry.get("result"), ValidationResult.class);
+            Files.setLastModifiedTime(entryPath, FileTime.fromMillis(System.currentTimeMillis()));
+            return new CachedResult(recordedEntries, recordedCounts, result);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to read the cached validation result " + entryPath + ", hence the definition will be " +
+                    "validated again. " + e.getMessage());
+            deleteQuietly(entryPath);
+            return null;
+        }
+    }
+
+    /**
+     * Cache the validation result of a definition. Results with messages carrying an exception are not cached.
+     * @param key     cache key
+     * @param entries messages of the validation
+     * @param counts  counters of the validation
+     * @param result  result of the validation
+     */
+    public void put(String key, List<DefinitionReport.Entry> entries, ValidationSummary counts,
+                    ValidationResult result) {
+        ObjectNode entry = mapper.createObjectNode();
+        ObjectNode countsNode = entry.putObject("counts");
+        countsNode.put("validationFailedFileCount", counts.getValidationFailedFileCount());
+        countsNode.put("validationSuccessFileCount", counts.getValidationSuccessFileCount());
+        countsNode.put("totalMalformedSwaggerFiles", counts.getTotalMalformedSwaggerFiles());
+        countsNode.put("totalPartialyPasedSwaggerFiles", counts.getTotalPartialyPasedSwaggerFiles());
+        ArrayNode messages = entry.putArray("messages");
+        for (DefinitionReport.Entry reportEntry : entries) {
+            if (reportEntry.getThrowable() != null) {
+                return;
+            }
+            messages.addObject().put("level", reportEntry.getLevel().name())
+                    .put("message", reportEntry.getMessage());
+        }
+        entry.set("result", mapper.valueToTree(result));
+        Path entryPath = entryPath(key);
+        Path tempPath = null;
+        try {
+            Files.createDirectories(entryPath.getParent());
+            byte[] bytes = mapper.writeValueAsBytes(entry);
+            // the temporary file has a unique name, as the processes of a sharded run can share the cache directory
+            tempPath = Files.createTempFile(entryPath.getParent(), entryPath.getFileName().toString(), TEMP_SUFFIX);
+            Files.write(tempPath, bytes);
+            synchronized (this) {
+                // the result of the same content can be cached again, e.g. for copies of a definition validated at
+                // the same time, replacing the file of the previous result
+                long replacedBytes = sizeOf(entryPath);
+                Files.move(tempPath, entryPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                tempPath = null;
+                sizeBytes += bytes.length - replacedBytes;
+                evict();
+            }
+        } catch (IOException e) {
+            log.warn("Unable to cache the validation result in " + entryPath + ". " + e.getMessage());
+        } finally {
+            if (tempPath != null) {
+                deleteQuietly(tempPath);
+            }
+        }
+    }
+
+    /**
+     * Delete the least recently used results until the cache is reduced below its maximum size, if it exceeds it.
+     * Called while holding the lock of the cache.
+     */
+    private void evict() {
+        if (sizeBytes <= maxSizeBytes) {
+            return;
+        }
+        try {
+            List<CacheEntryFile> entryFiles = new ArrayList<>();
+            for (Path entry : listEntries()) {
+                entryFiles.add(new CacheEntryFile(entry, Files.size(entry),
+                        Files.getLastModifiedTime(entry).toMillis()));
+            }
+            entryFiles.sort(Comparator.comparingLong(entryFile -> entryFile.lastModified));
+            long size = entryFiles.stream().mapToLong(entryFile -> entryFile.size).sum();
+            long targetSize = (long) (maxSizeBytes * EVICTION_TARGET_RATIO);
+            for (CacheEntryFile entryFile : entryFiles) {
+                if (size <= targetSize) {
+                    break;
+                }
+                deleteQuietly(entryFile.path);
+                size -= entryFile.size;
+            }
+            sizeBytes = size;
+        } catch (IOException e) {
+            log.warn("Error occurred while evicting cached validation results. " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return size of the cached results, as tracked between evictions
+     */
+    synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Delete the temporary files of the results that were being cached when a run was stopped. Recent temporary files
+     * are kept, as they can belong to another process of a sharded run writing a result at the same time.
+     * @throws IOException if the cache directory cannot be read
+     */
+    private void deleteStaleTempFiles() throws IOException {
+        long staleBefore = System.currentTimeMillis() - STALE_TEMP_FILE_MILLIS;
+        for (Path tempFile : listFiles(TEMP_SUFFIX)) {
+            if (Files.getLastModifiedTime(tempFile).toMillis() < staleBefore) {
+                deleteQuietly(tempFile);
+            }
+        }
+    }
+
+    /**
+     * @param entryPath file of a cached result
+     * @return size of the file, or 0 if there is no such file
+     */
+    private static long sizeOf(Path entryPath) {
+        try {
+            return Files.size(entryPath);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private List<Path> listEntries() throws IOException {
+        return listFiles(ENTRY_SUFFIX);
+    }
+
+    private List<Path> listFiles(String suffix) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory, 2)) {
+            return paths.filter(path -> path.getFileName().toString().endsWith(suffix))
+                    .filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path entryPath(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ENTRY_SUFFIX);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Unable to delete " + path, e);
+        }
+    }
+
+    /**
+     * @return hash of the cache entry format, the tool version, the swagger-parser version and the error mappings in
+     * {@link Constants}
+     */
+    static String computeFingerprint() {
+        StringBuilder fingerprintBuilder = new StringBuilder();
+        Properties toolProperties = new Properties();
+        try (InputStream inputStream = ResultCache.class.getResourceAsStream("/tool.properties")) {
+            if (inputStream != null) {
+                toolProperties.load(inputStream);
+            }
+        } catch (IOException e) {
+            log.warn("Unable to read the tool version. " + e.getMessage());
+        }
+        fingerprintBuilder.append(ENTRY_FORMAT_VERSION).append('\n')
+                .append(toolProperties.getProperty("tool.version")).append('\n')
+                .append(toolProperties.getProperty("swagger.parser.version")).append('\n');
+        Field[] fields = Constants.class.getDeclaredFields();
+        Arrays.sort(fields, Comparator.comparing(Field::getName));
+        for (Field field : fields) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                try {
+                    fingerprintBuilder.append(field.getName()).append('=').append(field.get(null)).append('\n');
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Unable to read the constant " + field.getName(), e);
+                }
+            }
+        }
+        fingerprintBuilder.append(Arrays.toString(Constants.SwaggerVersion.values()));
+        return toHex(sha256().digest(fingerprintBuilder.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Validation result read from the cache.
+     */
+    public static class CachedResult {
+        private final List<DefinitionReport.Entry> entries;
+        private final ValidationSummary counts;
+        private final ValidationResult result;
+
+        CachedResult(List<DefinitionReport.Entry> entries, ValidationSummary counts, ValidationResult result) {
+            this.entries = entries;
+            this.counts = counts;
+            this.result = result;
+        }
+
+        public List<DefinitionReport.Entry> getEntries() {
+            return entries;
+        }
+
+        public ValidationSummary getCounts() {
+            return counts;
+        }
+
+        public ValidationResult getResult() {
+            return result;
+        }
+    }
+
+    private static class CacheEntryFile {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+
+        private CacheEntryFile(Path path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
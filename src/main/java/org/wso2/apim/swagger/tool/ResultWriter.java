@@ -0,0 +1,61 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes the validation results to a report file as the definitions are validated, instead of collecting them until
+ * the end of the run. Implementations are called from the validation workers, hence they must be thread safe.
+ */
+public interface ResultWriter extends AutoCloseable {
+
+    /**
+     * @param result result of a definition
+     * @throws IOException if the result cannot be written
+     */
+    void write(ValidationResult result) throws IOException;
+
+    /**
+     * Complete the report and release the report file.
+     * @throws IOException if the report cannot be completed
+     */
+    @Override
+    void close() throws IOException;
+
+    /**
+     * @param format     report format, jsonl or junit
+     * @param outputPath report file
+     * @return writer of the given format
+     * @throws IOException if the report file cannot be created
+     */
+    static ResultWriter create(String format, Path outputPath) throws IOException {
+        switch (format) {
+            case "jsonl":
+                return new JsonLinesResultWriter(outputPath);
+            case "junit":
+                return new JUnitResultWriter(outputPath);
+            default:
+                throw new IllegalArgumentException("Unsupported report format " + format);
+        }
+    }
+}
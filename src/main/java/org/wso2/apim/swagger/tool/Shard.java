@@ -0,0 +1,123 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Share of the definitions of a location validated by one of several processes. Each definition is assigned to a
+ * shard by a hash of its path relative to the location, so the processes validating the same location split the
+ * definitions between them without any coordination, and a definition is assigned to the same shard whichever machine
+ * the location is read on and wherever it is mounted.
+ */
+public class Shard {
+    /** Shard of a run that is not sharded, which is assigned every definition. */
+    public static final Shard ALL = new Shard(1, 1);
+    private static final int FNV_OFFSET_BASIS = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private final int index;
+    private final int count;
+
+    private Shard(int index, int count) {
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * @param value shard given as "i/N", the index i from 1 to the number of shards N
+     * @return shard, or null if the value is not a valid shard
+     */
+    public static Shard parse(String value) {
+        int separator = value.indexOf('/');
+        if (separator < 0) {
+            return null;
+        }
+        int index;
+        int count;
+        try {
+            index = Integer.parseInt(value.substring(0, separator));
+            count = Integer.parseInt(value.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (count < 1 || index < 1 || index > count) {
+            return null;
+        }
+        return new Shard(index, count);
+    }
+
+    /**
+     * @param relativePath path of a definition relative to the location being validated
+     * @return whether the definition is validated by this shard
+     */
+    public boolean isAssigned(Path relativePath) {
+        if (count == 1) {
+            return true;
+        }
+        // the names are joined with '/' so that the assignment does not depend on the file system
+        StringBuilder key = new StringBuilder();
+        for (Path name : relativePath) {
+            if (key.length() > 0) {
+                key.append('/');
+            }
+            key.append(name);
+        }
+        return isAssigned(key.toString());
+    }
+
+    /**
+     * @param key name of a definition that is the same for all the processes validating the location, such as its
+     *            path relative to the location or its line in a stream of definitions
+     * @return whether the definition is validated by this shard
+     */
+    public boolean isAssigned(String key) {
+        if (count == 1) {
+            return true;
+        }
+        // FNV-1a, since String.hashCode spreads similar names such as "api-1.yaml" and "api-2.yaml" poorly
+        int hash = FNV_OFFSET_BASIS;
+        for (byte value : key.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (value & 0xff)) * FNV_PRIME;
+        }
+        return Math.floorMod(hash, count) == index - 1;
+    }
+
+    /**
+     * @return index of the shard, from 1 to the number of shards
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return number of shards the definitions are split into
+     */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
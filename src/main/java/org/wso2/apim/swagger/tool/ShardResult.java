@@ -0,0 +1,175 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Partial result of a run validating a single shard of a location. Each of the processes validating the location
+ * writes the counters of its shard to its own file in a shared folder, and the counters of the whole location are
+ * merged from the files once all the shards are validated.
+ */
+public class ShardResult {
+    private static final Logger log = LoggerFactory.getLogger(ShardResult.class);
+    private static final String FILE_NAME_PATTERN = "shard-*-of-*.json";
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final Shard shard;
+    private final String location;
+    private final int validationLevel;
+    private final long durationMillis;
+    private final ValidationSummary summary;
+
+    /**
+     * @param shard           validated shard
+     * @param location        location the shard was taken from
+     * @param validationLevel swagger validation level[0,1,2,3]
+     * @param durationMillis  time taken to validate the shard
+     * @param summary         counters of the definitions of the shard
+     */
+    public ShardResult(Shard shard, String location, int validationLevel, long durationMillis,
+                       ValidationSummary summary) {
+        this.shard = shard;
+        this.location = location;
+        this.validationLevel = validationLevel;
+        this.durationMillis = durationMillis;
+        this.summary = summary;
+    }
+
+    /**
+     * Write the result to the given folder as shard-i-of-N.json. The file is replaced atomically, so a merge never
+     * reads a partially written result.
+     * @param directory folder the results of all the shards are written to
+     * @return written file
+     * @throws IOException if the file cannot be written
+     */
+    public Path write(Path directory) throws IOException {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("shard", shard.toString());
+        node.put("location", location);
+        node.put("validationLevel", validationLevel);
+        node.put("durationMillis", durationMillis);
+        node.set("summary", summary.toJson(mapper));
+        Files.createDirectories(directory);
+        Path resultPath = directory.resolve("shard-" + shard.getIndex() + "-of-" + shard.getCount() + ".json");
+        Path tempPath = resultPath.resolveSibling(resultPath.getFileName() + ".tmp");
+        Files.write(tempPath, mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(node));
+        Files.move(tempPath, resultPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return resultPath;
+    }
+
+    /**
+     * @param directory folder the results of the shards were written to
+     * @return results of the shards found in the folder, ordered by the shard index
+     * @throws IOException if the folder or a result cannot be read
+     */
+    public static List<ShardResult> readAll(Path directory) throws IOException {
+        List<ShardResult> results = new ArrayList<>();
+        try (DirectoryStream<Path> resultPaths = Files.newDirectoryStream(directory, FILE_NAME_PATTERN)) {
+            for (Path resultPath : resultPaths) {
+                results.add(read(resultPath));
+            }
+        }
+        results.sort(Comparator.comparingInt(result -> result.shard.getIndex()));
+        return results;
+    }
+
+    private static ShardResult read(Path resultPath) throws IOException {
+        JsonNode node = mapper.readTree(resultPath.toFile());
+        Shard shard = Shard.parse(node.path("shard").asText());
+        if (shard == null) {
+            throw new IOException("Invalid shard result " + resultPath + ", the shard is missing");
+        }
+        return new ShardResult(shard, node.path("location").asText(), node.path("validationLevel").asInt(),
+                node.path("durationMillis").asLong(), ValidationSummary.fromJson(node.path("summary")));
+    }
+
+    /**
+     * Merge the counters of the shards of a location, which must be the results of all the shards of the same run.
+     * @param results results of the shards, ordered by the shard index
+     * @return counters of the whole location
+     * @throws IllegalArgumentException if a shard is missing or the results are not of the same run
+     */
+    public static ValidationSummary merge(List<ShardResult> results) {
+        if (results.isEmpty()) {
+            throw new IllegalArgumentException("No shard results found");
+        }
+        ShardResult first = results.get(0);
+        int shardCount = first.shard.getCount();
+        ValidationSummary merged = new ValidationSummary();
+        int expectedIndex = 1;
+        for (ShardResult result : results) {
+            if (result.shard.getCount() != shardCount) {
+                throw new IllegalArgumentException("Shard results of " + shardCount + " and "
+                        + result.shard.getCount() + " shards found, the results of an earlier run are to be removed");
+            }
+            if (result.validationLevel != first.validationLevel) {
+                throw new IllegalArgumentException("Shard " + result.shard + " was validated with level "
+                        + result.validationLevel + " instead of " + first.validationLevel);
+            }
+            if (result.shard.getIndex() != expectedIndex) {
+                throw new IllegalArgumentException(result.shard.getIndex() < expectedIndex
+                        ? "Shard " + result.shard + " found more than once"
+                        : "Shard " + expectedIndex + "/" + shardCount + " is missing");
+            }
+            if (!result.location.equals(first.location)) {
+                // the location may be mounted at a different path on each machine
+                log.warn("Shard " + result.shard + " was taken from " + result.location + " instead of "
+                        + first.location);
+            }
+            merged.add(result.summary);
+            expectedIndex++;
+        }
+        if (expectedIndex <= shardCount) {
+            throw new IllegalArgumentException("Shard " + expectedIndex + "/" + shardCount + " is missing");
+        }
+        return merged;
+    }
+
+    public Shard getShard() {
+        return shard;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public ValidationSummary getSummary() {
+        return summary;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.swagger.models.Model;
+import io.swagger.models.Operation;
+import io.swagger.models.RefModel;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.RefParameter;
+import io.swagger.models.refs.RefFormat;
+import io.swagger.parser.ResolverCache;
+import io.swagger.parser.SwaggerResolver;
+import io.swagger.parser.processors.DefinitionsProcessor;
+import io.swagger.parser.processors.OperationProcessor;
+import io.swagger.parser.processors.ParameterProcessor;
+import io.swagger.parser.processors.PathsProcessor;
+import io.swagger.parser.util.DeserializationUtils;
+import io.swagger.parser.util.RefUtils;
+import io.swagger.parser.util.SwaggerDeserializer;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resolves the references of a Swagger 2 definition the same way as SwaggerResolver, loading the referenced files and
+ * URLs through the external document cache of the run instead of reading and deserializing them again for every
+ * reference of every definition. Relative references are resolved against the folder of the definition file.
+ */
+public class SwaggerReferenceResolver {
+    private final Swagger swagger;
+    private final DefinitionsProcessor definitionsProcessor;
+    private final PathsProcessor pathsProcessor;
+    private final OperationProcessor operationProcessor;
+    private final ParameterProcessor parameterProcessor;
+
+    /**
+     * @param swagger   deserialized definition
+     * @param location  definition file, or null if relative references are resolved against the working folder
+     * @param detached  whether the definition has no folder, in which case relative references are not resolved
+     * @param documents referenced files and URLs shared by the definitions of the run
+     */
+    public SwaggerReferenceResolver(Swagger swagger, Path location, boolean detached,
+                                    ExternalDocumentCache documents) {
+        this.swagger = swagger;
+        SharedResolverCache cache = new SharedResolverCache(swagger, location, detached, documents);
+        definitionsProcessor = new DefinitionsProcessor(cache, swagger);
+        pathsProcessor = new PathsProcessor(cache, swagger, new SwaggerResolver.Settings());
+        operationProcessor = new OperationProcessor(cache, swagger);
+        parameterProcessor = new ParameterProcessor(cache, swagger);
+    }
+
+    /**
+     * @return the resolved definition, or null if no definition was given
+     */
+    public Swagger resolve() {
+        if (swagger == null) {
+            return null;
+        }
+        if (swagger.getParameters() != null) {
+            for (Map.Entry<String, Parameter> parameter : swagger.getParameters().entrySet()) {
+                if (parameter.getValue() instanceof RefParameter
+                        && ((RefParameter) parameter.getValue()).getRefFormat() == RefFormat.RELATIVE) {
+                    parameter.setValue(parameterProcessor.processParameters(
+                            Collections.singletonList(parameter.getValue())).get(0));
+                }
+            }
+        }
+        pathsProcessor.processPaths();
+        definitionsProcessor.processDefinitions();
+        if (swagger.getPaths() != null) {
+            for (io.swagger.models.Path path : swagger.getPaths().values()) {
+                if (path.getOperations() != null) {
+                    for (Operation operation : path.getOperations()) {
+                        operationProcessor.processOperation(operation);
+                    }
+                }
+            }
+        }
+        return swagger;
+    }
+
+    private static class SharedResolverCache extends ResolverCache {
+        private final Swagger swagger;
+        private final Path parentDirectory;
+        private final ExternalDocumentCache documents;
+        private final Map<String, Object> resolutionCache = new HashMap<>();
+
+        SharedResolverCache(Swagger swagger, Path location, boolean detached, ExternalDocumentCache documents) {
+            super(swagger, new ArrayList<>(), location != null ? location.toString() : null);
+            this.swagger = swagger;
+            this.parentDirectory = ExternalDocumentCache.getParentDirectory(location, detached);
+            this.documents = documents;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T loadRef(String ref, RefFormat refFormat, Class<T> expectedType) {
+            DefinitionGuard.check();
+            if (refFormat == RefFormat.INTERNAL) {
+                return super.loadRef(ref, refFormat, expectedType);
+            }
+            String[] refParts = ref.split("#/");
+            if (refParts.length > 2) {
+                throw new RuntimeException("Invalid ref format: " + ref);
+            }
+            String file = refParts[0];
+            String definitionPath = refParts.length == 2 ? refParts[1] : null;
+
+            Object previouslyResolvedEntity = resolutionCache.get(ref);
+            if (previouslyResolvedEntity != null) {
+                return expectedType.cast(previouslyResolvedEntity);
+            }
+
+            ExternalDocumentCache.ExternalDocument document = refFormat == RefFormat.URL
+                    ? documents.getUrl(file, () -> RefUtils.readExternalRef(file, refFormat, new ArrayList<>(),
+                    parentDirectory))
+                    : documents.getFile(file, parentDirectory, () -> RefUtils.readExternalRef(file, refFormat,
+                    new ArrayList<>(), parentDirectory));
+            if (definitionPath == null) {
+                T result = DeserializationUtils.deserialize(document.getContents(), file, expectedType);
+                resolutionCache.put(ref, result);
+                return result;
+            }
+
+            JsonNode tree = document.getTree();
+            for (String jsonPathElement : definitionPath.split("/")) {
+                tree = tree.get(RefIndex.unescape(jsonPathElement));
+                if (tree == null) {
+                    throw new RuntimeException("Could not find " + definitionPath + " in contents of " + file);
+                }
+            }
+            T result;
+            if (expectedType.equals(Model.class)) {
+                result = (T) new SwaggerDeserializer().definition((ObjectNode) tree, definitionPath.replace("/", "."),
+                        null);
+            } else {
+                result = DeserializationUtils.deserialize(tree, file, expectedType);
+            }
+            updateLocalRefs(file, result);
+            resolutionCache.put(ref, result);
+
+            // the schema of an external body parameter referencing another external model is resolved as well
+            if (result instanceof BodyParameter) {
+                Model schema = ((BodyParameter) result).getSchema();
+                if (schema instanceof RefModel) {
+                    RefModel refModel = (RefModel) schema;
+                    String externalRef = RefUtils.isAnExternalRefFormat(refModel.getRefFormat())
+                            ? refModel.getReference() : ref.substring(0, ref.indexOf('#')) + refModel.getReference();
+                    swagger.addDefinition(refModel.getSimpleRef(), loadRef(externalRef, refFormat, Model.class));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public Map<String, Object> getResolutionCache() {
+            return Collections.unmodifiableMap(resolutionCache);
+        }
+    }
+}
@@ -20,28 +20,23 @@
 
 package org.wso2.apim.swagger.tool;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import io.swagger.parser.OpenAPIParser;
-import io.swagger.parser.SwaggerParser;
-import io.swagger.v3.parser.ObjectMapperFactory;
-import io.swagger.v3.parser.OpenAPIV3Parser;
-import io.swagger.v3.parser.core.models.ParseOptions;
 import io.swagger.v3.parser.core.models.SwaggerParseResult;
+import org.apache.logging.log4j.core.config.Configurator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Swagger Validation Tool Main Class: This Class will work as a CLI tool to validate the Swagger 2 and OpenAPI
@@ -49,177 +44,958 @@ import java.util.List;
  */
 public class SwaggerTool {
     private static final Logger log = LoggerFactory.getLogger(SwaggerTool.class);
-    static int totalFileCount = 0;
-    static int validationFailedFileCount = 0;
-    static int validationSuccessFileCount = 0;
-    static int totalMalformedSwaggerFiles = 0;
-    static int totalPartialyPasedSwaggerFiles = 0;
+    private static final String BULK_LOGGING_CONFIGURATION = "/log4j2-bulk.xml";
+    static final ValidationSummary summary = new ValidationSummary();
+    static ResultCache resultCache;
+    static ResultWriter resultWriter;
+    static HeapBudget heapBudget = HeapBudget.ofMaxHeap();
+    static FileDiscovery fileDiscovery = new FileDiscovery();
+    static BatchInputReader batchInputReader = new BatchInputReader(null, fileDiscovery);
+    static ValidationMetrics metrics = new ValidationMetrics(ToolOptions.DEFAULT_SLOWEST_COUNT);
+    static boolean lazyResolution = true;
 
     /**
      * @param args 2 parameters are supported when executing the tool.
      *             Param 1: Direct path to the swagger/openAPI file or the folder location
      *             Ex: location:/Users/xyz/Downloads/swagger-definition/invalid-swagger-definitions
+     *             A ZIP or tar archive, an NDJSON file or "location:-" for the standard input is read as a batch of
+     *             definitions, without extracting it
      *             Param 2: validationLevel - Default will be 2
      *             If the validationLevel is 0, swagger validation errors won't be returned only verify whether the
      *             swagger definition is returned after the validation.
      *             If the validationLevel is 1, swagger will be validated as per the same behaviour as API Manager 4.0.0
      *             If the validationLevel is 2, All the validation errors will be returned
+     *             If the validationLevel is 3, the structure and the references of the definition will be validated
+     *             and the errors found will be returned, without resolving the definition fully
+     *             Options:
+     *             --threads N: Number of worker threads used to validate the files of a folder. Default will be 1
+     *             --cache DIR: Folder to cache the validation results in, unchanged files are not validated again
+     *             --cache-size MB: Maximum size of the validation result cache. Default will be 512
+     *             --output FILE: Write the result of each definition to the given report file
+     *             --format FORMAT: Format of the report file, jsonl or junit. Default will be jsonl
+     *             --bulk: Write the log output in batches from a background thread, for runs over large folders
+     *             --quiet: Only log the errors, the warnings and a summary line per file
+     *             --heap-budget MB: Heap the files validated at the same time may use, files estimated to need more
+     *             are not validated. By default a share of the maximum heap is used and no file is rejected
+     *             --include GLOBS: Comma separated patterns of the files of a folder to be validated. Default will be
+     *             *.json,*.yaml,*.yml
+     *             --exclude GLOBS: Comma separated patterns of the files and the folders to be skipped
+     *             --max-depth N: Number of folder levels below the given folder to look for files in
+     *             --follow-links: Follow the symbolic links to folders
+     *             --include-hidden: Validate the hidden files and the files in hidden folders as well
+     *             --ref-mirror DIR: Folder with local copies of the referenced URLs, at DIR/host/path
+     *             --ref-cache-size MB: Maximum size of the cache of the referenced files and URLs. Default will be 128
+     *             --metrics FILE: Write the timing and volume metrics of the run to the given file
+     *             --metrics-format FORMAT: Format of the metrics file, prometheus or json. Default will be prometheus
+     *             --slowest N: Number of the slowest definitions listed at the end of the run. Default will be 10
+     *             --timeout SECONDS: Time the validation of a single definition may take, definitions exceeding it
+     *             are reported as exceeding the time limit. The time is not limited by default
+     *             --definition-heap MB: Heap a single definition may be estimated to need, larger definitions are
+     *             reported as exceeding the memory limit without being validated
+     *             --input-format FORMAT: Read the given file or the standard input as a batch of definitions, zip,
+     *             tar, tar.gz, ndjson or yaml. By default the format is detected from the file name or the content
+     *             --shard I/N: Validate only the I-th of N shards of the definitions of the location, assigned by
+     *             a hash of their relative paths, and write the counters of the shard to --shard-dir
+     *             --shard-dir DIR: Folder the results of the shards are written to. Default will be the current folder
+     *             --merge DIR: Merge the results of all the shards written to the given folder into the summary of
+     *             the whole location, the swagger location is not given in this mode
+     *             --resolution MODE: lazy or full. Levels 0 and 3 resolve the definitions only as far as the
+     *             outcome depends on it, unless full is given. Default will be lazy
+     *             --watch: Keep running once the location is validated and validate the changed files, and the files
+     *             referencing them, again on every change, logging only the changes in their results
+     *             --watch-delay MS: Time the location has to be quiet for before its changes are validated. Default
+     *             will be 300
+     *             --server PORT: Keep running and validate the definitions posted to the given local port, the
+     *             swagger location is not given in this mode and --threads is the number of concurrent requests
      */
     public static void main(String[] args) {
-        if (args.length == 1 || args.length == 2) {
-            String swaggerContent = args[0];
-            int validationLevel = 2;
-            if (args.length == 2) {
-                validationLevel = Integer.parseInt(args[1]);
-            }
-            if (swaggerContent.startsWith("location:")) {
-                validateSwaggerFromLocation(swaggerContent.replace("location:", ""), validationLevel);
-            } else {
-                validateSwaggerContent(swaggerContent, validationLevel);
+        ToolOptions options = ToolOptions.parse(args);
+        if (options != null) {
+            if (options.isBulkLogging()) {
+                useBulkLogging();
+            }
+            DefinitionReport.setQuiet(options.isQuiet());
+            if (options.isMergeMode()) {
+                mergeShardResults(Paths.get(options.getMergeDirectory()));
+                return;
+            }
+            if (options.getHeapBudgetMegabytes() > 0) {
+                heapBudget = HeapBudget.enforced(options.getHeapBudgetMegabytes() * 1024L * 1024L);
+            }
+            if (options.getDefinitionHeapMegabytes() > 0) {
+                heapBudget = heapBudget.withDefinitionLimit(options.getDefinitionHeapMegabytes() * 1024L * 1024L);
+            }
+            DefinitionGuard.setTimeoutMillis(options.getTimeoutSeconds() * 1000L);
+            fileDiscovery = options.getFileDiscovery();
+            batchInputReader = options.getBatchInputReader();
+            metrics = new ValidationMetrics(options.getSlowestCount());
+            lazyResolution = options.isLazyResolution();
+            ParserContext.setExternalDocumentCache(options.getExternalDocumentCache());
+            int validationLevel = options.getValidationLevel();
+            if (options.getCacheDirectory() != null && !lazyResolution) {
+                log.warn("The validation results are not cached with the full resolution, which is only meant to be "
+                        + "compared with the lazy resolution.");
+            } else if (options.getCacheDirectory() != null) {
+                try {
+                    resultCache = ResultCache.open(Paths.get(options.getCacheDirectory()),
+                            options.getCacheSizeMegabytes() * 1024L * 1024L);
+                } catch (IOException e) {
+                    log.error("Error occurred while opening the validation result cache at "
+                            + options.getCacheDirectory() + ", hence the results will not be cached. ", e);
+                }
+            }
+            if (options.isServerMode()) {
+                startValidationServer(options.getServerPort(), options.getServerThreads(), validationLevel);
+                return;
+            }
+            if (options.getOutputPath() != null) {
+                try {
+                    resultWriter = ResultWriter.create(options.getOutputFormat(), Paths.get(options.getOutputPath()));
+                } catch (IOException e) {
+                    log.error("Error occurred while creating the report " + options.getOutputPath(), e);
+                    return;
+                }
+            }
+            String swaggerContent = options.getSwaggerContent();
+            DefinitionWatcher definitionWatcher = null;
+            if (options.isWatchMode()) {
+                definitionWatcher = createDefinitionWatcher(swaggerContent.replace("location:", ""), validationLevel,
+                        options);
+                if (definitionWatcher == null) {
+                    closeResultWriter();
+                    return;
+                }
+                resultWriter = definitionWatcher.recordResults(resultWriter);
+            }
+            long startTime = System.nanoTime();
+            try {
+                if (swaggerContent.startsWith("location:")) {
+                    validateSwaggerFromLocation(swaggerContent.replace("location:", ""), validationLevel,
+                            options.getThreads());
+                } else {
+                    ValidationResult result = validateSwaggerContent(swaggerContent, validationLevel);
+                    metrics.recordFile("inline definition", startTime,
+                            swaggerContent.getBytes(StandardCharsets.UTF_8).length, result, null);
+                    writeResult(result);
+                }
+            } finally {
+                closeResultWriter();
+            }
+            log.info(metrics.toTable(summary));
+            if (options.getMetricsPath() != null) {
+                try {
+                    metrics.write(summary, options.getMetricsFormat(), Paths.get(options.getMetricsPath()));
+                } catch (IOException e) {
+                    log.error("Error occurred while writing the metrics to " + options.getMetricsPath(), e);
+                }
+            }
+            if (options.getShard() != null && swaggerContent.startsWith("location:")) {
+                writeShardResult(new ShardResult(options.getShard(), swaggerContent.replace("location:", ""),
+                        validationLevel, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), summary),
+                        Paths.get(options.getShardDirectory()));
+            }
+            if (definitionWatcher != null) {
+                watchLocation(definitionWatcher);
             }
-            log.info("Summary --- Total Files Processed: " + totalFileCount + ". Total Successful Files Count "
-                    + validationSuccessFileCount + ". Total Failed Files Count: " + validationFailedFileCount + ". " +
-                    "Total Malformed Swagger File Count: " + totalMalformedSwaggerFiles);
         } else {
             log.info("\nUsage: \t java -jar apim-swagger-validator.jar " +
-                    "[<File uri> | <Directory uri> | <Swagger String>] [0 | 1 | 2] \n 0 \tValidation disabled. " +
-                    "Only verify whether the swagger/openAPI definition is returned by the validator. " +
-                    "\n 1 \tValidate as in WSO2 API Manager 4.0.0 and verify whether the swagger/openAPI " +
+                    "[<File uri> | <Directory uri> | <Swagger String>] [0 | 1 | 2 | 3] [--threads <count>] " +
+                    "[--cache <directory>] [--cache-size <MB>] [--output <file>] [--format <jsonl | junit>] " +
+                    "[--bulk] [--quiet] [--heap-budget <MB>] [--include <globs>] [--exclude <globs>] " +
+                    "[--max-depth <levels>] [--follow-links] [--include-hidden] [--ref-mirror <directory>] " +
+                    "[--ref-cache-size <MB>] [--metrics <file>] [--metrics-format <prometheus | json>] " +
+                    "[--slowest <count>] [--input-format <zip | tar | tar.gz | ndjson | yaml>] [--timeout <seconds>] " +
+                    "[--definition-heap <MB>] [--shard <index>/<count>] [--shard-dir <directory>] " +
+                    "[--resolution <lazy | full>] [--watch] [--watch-delay <ms>] \n\t " +
+                    "java -jar apim-swagger-validator.jar --server <port> [--threads <count>] [--cache <directory>] " +
+                    "[--cache-size <MB>] [--ref-mirror <directory>] [--ref-cache-size <MB>] [--timeout <seconds>] " +
+                    "\n\t java -jar apim-swagger-validator.jar --merge <directory> \n 0 \t" +
+                    "Validation disabled. Only verify whether the swagger/openAPI definition is returned by the " +
+                    "validator. \n 1 \tValidate as in WSO2 API Manager 4.0.0 and verify whether the swagger/openAPI " +
                     "definition is returned by the validator. \n 2 \tFully validate the definitions and verify " +
-                    "whether the swagger/openAPI definition is returned by the validator");
+                    "whether the swagger/openAPI definition is returned by the validator \n 3 \tValidate the " +
+                    "structure and the references of the definitions without resolving them fully \n --threads " +
+                    "\tNumber of worker threads used to validate the files of a folder \n --cache \tFolder to cache " +
+                    "the validation results in, unchanged files are not validated again \n --cache-size \t" +
+                    "Maximum size of the validation result cache in MB, default 512 \n --server \tValidate the " +
+                    "definitions posted to http://localhost:<port>/validate?level=<0 | 1 | 2 | 3> instead of " +
+                    "exiting after one validation \n --output \tReport file the result of each definition is " +
+                    "written to \n --format " +
+                    "\tFormat of the report file, jsonl (JSON Lines) or junit (JUnit XML), default jsonl \n --bulk " +
+                    "\tWrite the log output in batches from a background thread \n --quiet \tOnly log the errors, " +
+                    "the warnings and a summary line per file \n --heap-budget \tHeap in MB the files validated at " +
+                    "the same time may use, files estimated to need more are not validated \n --include \tComma " +
+                    "separated glob patterns of the files of a folder to be validated, default *.json,*.yaml,*.yml " +
+                    "\n --exclude \tComma separated glob patterns of the files and the folders to be skipped \n " +
+                    "--max-depth \tNumber of folder levels below the given folder to look for files in \n " +
+                    "--follow-links \tFollow the symbolic links to folders \n --include-hidden \tValidate the hidden " +
+                    "files and the files in hidden folders as well \n --ref-mirror \tFolder with local copies of the " +
+                    "referenced URLs, at <directory>/<host>/<path> \n --ref-cache-size \tMaximum size of the cache " +
+                    "of the referenced files and URLs in MB, default 128 \n --metrics \tFile the timing and volume " +
+                    "metrics of the run are written to \n --metrics-format \tFormat of the metrics file, prometheus " +
+                    "or json, default prometheus \n --slowest \tNumber of the slowest definitions listed at the end " +
+                    "of the run, default 10 \n --input-format \tRead the given file or location:- (the standard " +
+                    "input) as a batch of definitions in the given format, zip, tar, tar.gz, ndjson or yaml (--- " +
+                    "separated documents), detected from the file name or the content by default \n --timeout " +
+                    "\tTime in seconds the validation of a single definition may take, not limited by default \n " +
+                    "--definition-heap \tHeap in MB a single definition may be estimated to need, larger ones are " +
+                    "not validated \n --shard \tValidate only the given shard of the definitions of the location, " +
+                    "e.g. 2/4, and write the counters of the shard to --shard-dir \n --shard-dir \tFolder the " +
+                    "results of the shards are written to, default the current folder \n --merge \tMerge the " +
+                    "results of all the shards written to the given folder into the summary of the location \n " +
+                    "--resolution \tlazy (default) resolves the definitions of levels 0 and 3 only as far as the " +
+                    "outcome depends on it, full resolves them fully as the other levels do \n --watch \tKeep " +
+                    "running and validate the changed files of the location, and the files referencing them, " +
+                    "again on every change \n --watch-delay \tTime in ms the location has to be quiet for before " +
+                    "its changes are validated, default 300");
+        }
+    }
+
+    /**
+     * @param location        swagger file or folder to be watched
+     * @param validationLevel swagger validation level[0,1,2,3]
+     * @param options         options of the run
+     * @return watcher of the location, or null if the location cannot be watched
+     */
+    private static DefinitionWatcher createDefinitionWatcher(String location, int validationLevel,
+                                                             ToolOptions options) {
+        if (batchInputReader.accepts(location)) {
+            log.error("The definitions of " + location + " are read as a batch input, which cannot be watched.");
+            return null;
+        }
+        try {
+            return new DefinitionWatcher(Paths.get(location), validationLevel, options.getThreads(),
+                    options.getWatchDelayMillis(), fileDiscovery);
+        } catch (IOException e) {
+            log.error("Error occurred while watching the given location " + location, e);
+            return null;
+        }
+    }
+
+    /**
+     * Validate the changes of the watched location until the JVM is shut down.
+     * @param definitionWatcher watcher holding the results of the run
+     */
+    private static void watchLocation(DefinitionWatcher definitionWatcher) {
+        Runtime.getRuntime().addShutdownHook(new Thread(definitionWatcher::close, "definition-watcher-shutdown"));
+        definitionWatcher.run();
+    }
+
+    /**
+     * Write the counters of the shard validated by this run, to be merged with the results of the other shards.
+     * @param shardResult result of the shard
+     * @param directory   folder the results of all the shards are written to
+     */
+    private static void writeShardResult(ShardResult shardResult, Path directory) {
+        try {
+            Path resultPath = shardResult.write(directory);
+            log.info("Result of shard " + shardResult.getShard() + " written to " + resultPath);
+        } catch (IOException e) {
+            log.error("Error occurred while writing the result of shard " + shardResult.getShard() + " to "
+                    + directory, e);
+        }
+    }
+
+    /**
+     * Merge the results of the shards of a location and log the summary of the whole location.
+     * @param directory folder the results of the shards were written to
+     */
+    private static void mergeShardResults(Path directory) {
+        List<ShardResult> shardResults;
+        try {
+            shardResults = ShardResult.readAll(directory);
+        } catch (IOException e) {
+            log.error("Error occurred while reading the shard results from " + directory, e);
+            return;
+        }
+        for (ShardResult shardResult : shardResults) {
+            log.info("Shard " + shardResult.getShard() + " of " + shardResult.getLocation() + ", validated in "
+                    + shardResult.getDurationMillis() + " ms. " + shardResult.getSummary());
+        }
+        try {
+            log.info(ShardResult.merge(shardResults).toString());
+        } catch (IllegalArgumentException e) {
+            log.error(e.getMessage() + " in " + directory + ", hence the shard results will not be merged.");
+        }
+    }
+
+    /**
+     * Switch to the bulk logging profile, which writes the log output in batches from a background thread.
+     */
+    private static void useBulkLogging() {
+        URL bulkConfiguration = SwaggerTool.class.getResource(BULK_LOGGING_CONFIGURATION);
+        try {
+            Configurator.reconfigure(bulkConfiguration.toURI());
+        } catch (URISyntaxException e) {
+            log.error("Error occurred while loading the bulk logging profile, hence the default profile is used", e);
+        }
+    }
+
+    private static void closeResultWriter() {
+        if (resultWriter != null) {
+            try {
+                resultWriter.close();
+            } catch (IOException e) {
+                log.error("Error occurred while completing the report", e);
+            }
+            resultWriter = null;
+        }
+    }
+
+    /**
+     * Start the validation server and stop it when the JVM is shut down.
+     * @param port            local port to listen on
+     * @param threads         number of requests validated concurrently
+     * @param validationLevel swagger validation level used when a request does not specify one
+     */
+    private static void startValidationServer(int port, int threads, int validationLevel) {
+        try {
+            ValidationServer validationServer = new ValidationServer(port, threads, validationLevel);
+            validationServer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(validationServer::close, "validation-server-shutdown"));
+        } catch (IOException e) {
+            log.error("Error occurred while starting the validation server on port " + port, e);
         }
     }
 
     /**
      * @param url             url for the swagger file
-     * @param validationLevel swagger validation level[0,1,2]
+     * @param validationLevel swagger validation level[0,1,2,3]
      */
     static void validateSwaggerFromLocation(String url, int validationLevel) {
+        validateSwaggerFromLocation(url, validationLevel, 1);
+    }
+
+    /**
+     * @param url             url for the swagger file or the folder
+     * @param validationLevel swagger validation level[0,1,2,3]
+     * @param threads         number of worker threads used to validate the files of a folder
+     */
+    static void validateSwaggerFromLocation(String url, int validationLevel, int threads) {
+        if (batchInputReader.accepts(url)) {
+            validateBatchInput(url, validationLevel, threads);
+        } else if (threads > 1) {
+            try (ParallelValidator parallelValidator = new ParallelValidator(threads, validationLevel)) {
+                fileDiscovery.discover(Paths.get(url), parallelValidator::submit);
+            }
+        } else {
+            fileDiscovery.discover(Paths.get(url), path -> validateSwaggerFile(path, validationLevel));
+        }
+    }
+
+    /**
+     * Validate the definitions of an archive or a stream of definitions, in the order they are read. Definitions
+     * that are too large to be validated within the heap budget are reported as failed without being read.
+     * @param location        archive or stream file, or "-" for the standard input
+     * @param validationLevel swagger validation level[0,1,2,3]
+     * @param threads         number of worker threads used to validate the definitions
+     */
+    private static void validateBatchInput(String location, int validationLevel, int threads) {
+        ParallelValidator parallelValidator = threads > 1 ? new ParallelValidator(threads, validationLevel) : null;
         try {
-            Path swaggerFilePath = Paths.get(url);
-            if (Files.isRegularFile(swaggerFilePath)) {
-                totalFileCount++;
-                String swaggerFileContent = new String(Files.readAllBytes(swaggerFilePath), StandardCharsets.UTF_8);
-                log.info("Start Parsing Swagger file " + swaggerFilePath.getFileName().toString());
-                validateSwaggerContent(swaggerFileContent, validationLevel);
-            } else if (Files.isDirectory(swaggerFilePath)) {
-                try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(swaggerFilePath)) {
-                    directoryStream.forEach((path) -> {
-                        validateSwaggerFromLocation(path.toString(), validationLevel);
-                    });
+            batchInputReader.read(location, heapBudget.getMaxDefinitionBytes(), new BatchInputReader.EntryHandler() {
+                @Override
+                public void validate(String source, byte[] content) {
+                    if (parallelValidator != null) {
+                        parallelValidator.submit(source, content);
+                    } else {
+                        validateSwaggerEntry(source, content, validationLevel);
+                    }
                 }
-            } else {
-                log.error("Error occurred while reading the provided file/folder, " +
-                        "please verify the file/folder availability");
+
+                @Override
+                public void reject(String source, long size) {
+                    validateSwaggerEntry(source, null, size, validationLevel);
+                }
+            });
+        } catch (IOException e) {
+            log.error("Error occurred while reading the swagger definitions from the give location " + location
+                    + ", hence the remaining definitions will not be validated. ", e);
+        } finally {
+            if (parallelValidator != null) {
+                parallelValidator.close();
+            }
+        }
+    }
+
+    /**
+     * Validate a single definition of an archive or a stream of definitions. The log output of the definition is
+     * written as one block once the definition is validated.
+     * @param source          name of the definition, the input followed by the archive entry or the line
+     * @param content         content of the definition
+     * @param validationLevel swagger validation level[0,1,2,3]
+     */
+    static void validateSwaggerEntry(String source, byte[] content, int validationLevel) {
+        validateSwaggerEntry(source, content, content.length, validationLevel);
+    }
+
+    /**
+     * @param source          name of the definition
+     * @param content         content of the definition, or null if the definition is too large to be read
+     * @param size            size of the definition in bytes
+     * @param validationLevel swagger validation level[0,1,2,3]
+     */
+    private static void validateSwaggerEntry(String source, byte[] content, long size, int validationLevel) {
+        long startTime = System.nanoTime();
+        summary.incrementTotalFileCount();
+        DefinitionReport report = DefinitionReport.open(log, resultCache != null);
+        ValidationResult result;
+        try {
+            if (DefinitionReport.isInfoEnabled(log)) {
+                DefinitionReport.info(log, "Start Parsing Swagger definition " + source);
+            }
+            ValidationSummary countsBefore = report.getCounts().snapshot();
+            try {
+                result = content != null ? validateSwaggerEntry(report, content, validationLevel)
+                        : rejectDefinition(null, HeapBudget.estimate(size, null));
+            } catch (RuntimeException e) {
+                result = failDefinition(report.getCounts(), countsBefore, e);
             }
+            result.setSource(source);
+            if (DefinitionReport.isQuiet()) {
+                DefinitionReport.summary(log, "Validated swagger definition " + source + ", Status: "
+                        + result.getStatus() + ", Errors: " + result.getErrors().size());
+            }
+            metrics.recordFile(source, startTime, size, result, report);
+        } finally {
+            DefinitionReport.close(summary);
+        }
+        writeResult(result);
+    }
+
+    /**
+     * Validate a definition of a batch input or a definition posted to the validation server into the given report
+     * within the heap budget, the same way as a swagger file.
+     * @param report          report open on the current thread
+     * @param content         content of the definition
+     * @param validationLevel swagger validation level[0,1,2,3]
+     * @return result of the validation
+     */
+    static ValidationResult validateSwaggerEntry(DefinitionReport report, byte[] content, int validationLevel) {
+        DefinitionHeader header = content.length > DefinitionParser.getStreamingThreshold()
+                ? DefinitionHeader.read(content) : null;
+        long estimatedBytes = HeapBudget.estimate(content.length, header != null ? header.getSpecification() : null);
+        if (!heapBudget.allows(estimatedBytes)) {
+            return rejectDefinition(header != null ? header : DefinitionHeader.read(content), estimatedBytes);
+        }
+        try (HeapBudget.Reservation ignored = heapBudget.reserve(estimatedBytes)) {
+            return validateSwaggerContent(report, content, validationLevel);
+        }
+    }
+
+    /**
+     * Validate a single swagger file. The log output of the file is written as one block once the file is validated.
+     * @param swaggerFilePath path of the swagger file
+     * @param validationLevel swagger validation level[0,1,2,3]
+     */
+    static void validateSwaggerFile(Path swaggerFilePath, int validationLevel) {
+        long startTime = System.nanoTime();
+        summary.incrementTotalFileCount();
+        DefinitionReport report = DefinitionReport.open(log, resultCache != null);
+        ValidationResult result;
+        try {
+            ValidationSummary countsBefore = report.getCounts().snapshot();
+            try {
+                result = validateReadableSwaggerFile(report, swaggerFilePath, validationLevel);
+            } catch (RuntimeException e) {
+                result = failDefinition(report.getCounts(), countsBefore, e);
+                result.setSource(swaggerFilePath.toString());
+            }
+            if (DefinitionReport.isQuiet()) {
+                DefinitionReport.summary(log, "Validated swagger file " + swaggerFilePath + ", Status: "
+                        + result.getStatus() + ", Errors: " + result.getErrors().size());
+            }
+            metrics.recordFile(swaggerFilePath.toString(), startTime, swaggerFilePath.toFile().length(), result,
+                    report);
+        } finally {
+            DefinitionReport.close(summary);
+        }
+        writeResult(result);
+    }
+
+    /**
+     * Report a definition whose validation failed with an unexpected error, such as an error of the parser on a
+     * definition it does not expect, as a failed definition. The counters updated by the failed validation are rolled
+     * back, so that the definition is counted and reported once whether it is validated by a worker or not.
+     * @param counts       counters of the definition
+     * @param countsBefore counters of the definition before the validation was started
+     * @param e            error of the validation
+     * @return failed result of the definition
+     */
+    private static ValidationResult failDefinition(ValidationSummary counts, ValidationSummary countsBefore,
+                                                   RuntimeException e) {
+        counts.rollback(countsBefore);
+        ValidationResult result = new ValidationResult();
+        ValidationError error = ValidationError.coded(null, Constants.OPENAPI_PARSE_EXCEPTION_ERROR_CODE,
+                Constants.OPENAPI_PARSE_EXCEPTION_ERROR_MESSAGE, e.toString());
+        result.addError(error);
+        result.setStatus(ValidationResult.Status.FAILED);
+        DefinitionReport.error(log, error, e);
+        counts.incrementValidationFailedFileCount();
+        return result;
+    }
+
+    /**
+     * Validate a swagger file again once it or a file it references has changed, in the watch mode. The log output
+     * and the counters of the file are dropped, as the watcher only logs the changes in the result of the file.
+     * @param swaggerFilePath path of the swagger file
+     * @param validationLevel swagger validation level[0,1,2,3]
+     * @return result of the validation
+     */
+    static ValidationResult revalidateSwaggerFile(Path swaggerFilePath, int validationLevel) {
+        DefinitionReport report = DefinitionReport.open(log, resultCache != null);
+        try {
+            return validateReadableSwaggerFile(report, swaggerFilePath, validationLevel);
+        } finally {
+            DefinitionReport.discard();
+        }
+    }
+
+    /**
+     * @param report          report open on the current thread
+     * @param swaggerFilePath path of the swagger file
+     * @param validationLevel swagger validation level[0,1,2,3]
+     * @return result of the validation, or a failed result if the file cannot be read
+     */
+    private static ValidationResult validateReadableSwaggerFile(DefinitionReport report, Path swaggerFilePath,
+                                                                int validationLevel) {
+        ValidationResult result;
+        try {
+            result = validateSwaggerFile(report, swaggerFilePath, validationLevel);
         } catch (IOException e) {
-            log.error("Error occurred while reading the swagger file from the give location " + url + ", hence the " +
-                    "file will not be validated. ", e);
+            DefinitionReport.error(log, "Error occurred while reading the swagger file from the give location "
+                    + swaggerFilePath + ", hence the file will not be validated. ", e);
+            result = new ValidationResult();
+            result.addError(ValidationError.uncoded("Error occurred while reading the swagger file: "
+                    + e.getMessage()));
         }
+        result.setSource(swaggerFilePath.toString());
+        return result;
+    }
+
+    /**
+     * Validate a swagger file into the given report within the heap budget, reusing the cached result of the same
+     * content if there is one. The specification of a large file is read from the top level fields of the file to
+     * estimate the heap needed to validate it, before the file is parsed.
+     * @param report          report open on the current thread
+     * @param swaggerFilePath path of the swagger file
+     * @param validationLevel swagger validation level[0,1,2,3]
+     * @return result of the validation
+     * @throws IOException if the file cannot be read
+     */
+    private static ValidationResult validateSwaggerFile(DefinitionReport report, Path swaggerFilePath,
+                                                        int validationLevel) throws IOException {
+        long fileSize = Files.size(swaggerFilePath);
+        DefinitionHeader header = fileSize > DefinitionParser.getStreamingThreshold()
+                ? DefinitionHeader.read(swaggerFilePath) : null;
+        long estimatedBytes = HeapBudget.estimate(fileSize, header != null ? header.getSpecification() : null);
+        String cacheKey = resultCache != null ? resultCache.key(swaggerFilePath, validationLevel) : null;
+        if (DefinitionReport.isInfoEnabled(log)) {
+            DefinitionReport.info(log, "Start Parsing Swagger file " + swaggerFilePath.getFileName());
+        }
+        ValidationResult result = replayCachedResult(report, cacheKey);
+        if (result != null) {
+            return result;
+        }
+        if (!heapBudget.allows(estimatedBytes)) {
+            return rejectSwaggerFile(swaggerFilePath, header, estimatedBytes);
+        }
+        int firstEntry = report.size();
+        try (HeapBudget.Reservation ignored = heapBudget.reserve(estimatedBytes)) {
+            long readStartTime = System.nanoTime();
+            ParsedDefinition definition;
+            try {
+                definition = DefinitionParser.parse(swaggerFilePath);
+            } catch (OutOfMemoryError e) {
+                return exhaustHeap(header, e);
+            }
+            metrics.recordStage(ValidationMetrics.Stage.READ, readStartTime);
+            if (cacheKey != null && hasExternalReferences(definition)) {
+                cacheKey = null;
+            }
+            result = validateSwaggerContent(definition, validationLevel);
+        }
+        cacheResult(report, cacheKey, firstEntry, result);
+        return result;
+    }
+
+    /**
+     * Report a swagger file that is estimated to need more heap than a single definition may use, without parsing the
+     * whole file. The specification and the name of the definition are read from the top level fields of the file.
+     * @param swaggerFilePath path of the swagger file
+     * @param header          top level fields of the file, or null if they have not been read yet
+     * @param estimatedBytes  estimated heap needed to validate the file
+     * @return failed result of the file
+     * @throws IOException if the file cannot be read
+     */
+    private static ValidationResult rejectSwaggerFile(Path swaggerFilePath, DefinitionHeader header,
+                                                      long estimatedBytes) throws IOException {
+        return rejectDefinition(header != null ? header : DefinitionHeader.read(swaggerFilePath), estimatedBytes);
+    }
+
+    /**
+     * Report a definition that is estimated to need more heap than the enforced heap budget or the heap limit of a
+     * single definition allow, as a definition that exceeded the memory limit.
+     * @param header         top level fields of the definition, or null if the definition has not been read
+     * @param estimatedBytes estimated heap needed to validate the definition
+     * @return failed result of the definition
+     */
+    private static ValidationResult rejectDefinition(DefinitionHeader header, long estimatedBytes) {
+        ValidationResult result = createResult(header);
+        ValidationError error = ValidationError.coded(result.getSpecification(),
+                Constants.VALIDATION_MEMORY_LIMIT_ERROR_CODE, Constants.VALIDATION_MEMORY_LIMIT_ERROR_MESSAGE,
+                "Swagger file is estimated to need " + toMegabytes(estimatedBytes) + " MB of heap to validate, which "
+                        + "exceeds the heap limit of " + toMegabytes(heapBudget.getDefinitionLimitBytes())
+                        + " MB, hence the file will not be validated.");
+        result.addError(error);
+        result.setStatus(ValidationResult.Status.LIMIT_EXCEEDED);
+        DefinitionReport.error(log, error);
+        counters().incrementValidationFailedFileCount();
+        counters().incrementTotalLimitExceededFiles();
+        return result;
+    }
+
+    /**
+     * @param header top level fields of the definition, or null if they have not been read
+     * @return result of a definition that is not validated, with the specification and the name of the header
+     */
+    private static ValidationResult createResult(DefinitionHeader header) {
+        ValidationResult result = new ValidationResult();
+        if (header != null) {
+            result.setSpecification(header.getSpecification());
+            result.setSpecificationVersion(header.getSpecificationVersion());
+            result.setName(header.getTitle());
+        }
+        return result;
+    }
+
+    private static long toMegabytes(long bytes) {
+        return (bytes + 1024 * 1024 - 1) / (1024 * 1024);
+    }
+
+    /**
+     * Validate a definition of a batch input or a request into the given report, reusing the cached result of the
+     * same content if there is one.
+     * @param report          report open on the current thread
+     * @param swaggerBytes    swagger content to be validated
+     * @param validationLevel swagger validation level[0,1,2,3]
+     * @return result of the validation
+     */
+    static ValidationResult validateSwaggerContent(DefinitionReport report, byte[] swaggerBytes,
+                                                   int validationLevel) {
+        String cacheKey = resultCache != null ? resultCache.key(swaggerBytes, validationLevel) : null;
+        ValidationResult result = replayCachedResult(report, cacheKey);
+        if (result != null) {
+            return result;
+        }
+        int firstEntry = report.size();
+        long readStartTime = System.nanoTime();
+        // the definition is not read from a file, hence its relative references are not resolved against the
+        // working folder, which would make its result depend on where the tool is run
+        ParsedDefinition definition;
+        try {
+            definition = DefinitionParser.parse(swaggerBytes).detached();
+        } catch (OutOfMemoryError e) {
+            return exhaustHeap(null, e);
+        }
+        metrics.recordStage(ValidationMetrics.Stage.READ, readStartTime);
+        if (cacheKey != null && hasExternalReferences(definition)) {
+            cacheKey = null;
+        }
+        result = validateSwaggerContent(definition, validationLevel);
+        cacheResult(report, cacheKey, firstEntry, result);
+        return result;
+    }
+
+    /**
+     * The files and URLs referenced by a definition are not part of the cache key of its result, hence the results
+     * of such definitions are not cached.
+     * @param definition parsed definition
+     * @return whether the definition references other files or URLs
+     */
+    private static boolean hasExternalReferences(ParsedDefinition definition) {
+        return definition.getRootNode() != null
+                && !RefIndex.build(definition.getRootNode()).getExternalDocuments().isEmpty();
+    }
+
+    /**
+     * @param report   report open on the current thread
+     * @param cacheKey cache key of the definition, or null if the results are not cached
+     * @return cached result, after replaying its log messages into the report, or null if there is none
+     */
+    private static ValidationResult replayCachedResult(DefinitionReport report, String cacheKey) {
+        ResultCache.CachedResult cachedResult = cacheKey != null ? resultCache.get(cacheKey) : null;
+        if (cachedResult == null) {
+            return null;
+        }
+        report.replay(cachedResult.getEntries(), cachedResult.getCounts());
+        return cachedResult.getResult();
+    }
+
+    /**
+     * @param report     report open on the current thread
+     * @param cacheKey   cache key of the definition, or null if the results are not cached
+     * @param firstEntry first entry of the report written by the validation of the definition
+     * @param result     result of the validation
+     */
+    private static void cacheResult(DefinitionReport report, String cacheKey, int firstEntry,
+                                    ValidationResult result) {
+        // whether a definition exceeds the time or the memory limit depends on the run, hence it is not cached
+        if (cacheKey != null && result.getStatus() != ValidationResult.Status.LIMIT_EXCEEDED) {
+            resultCache.put(cacheKey, report.getEntries(firstEntry), report.getCounts(), result);
+        }
+    }
+
+    /**
+     * Write the given result to the report file, if a report file is requested.
+     * @param result result of a definition
+     */
+    private static void writeResult(ValidationResult result) {
+        if (resultWriter == null) {
+            return;
+        }
+        try {
+            resultWriter.write(result);
+        } catch (IOException e) {
+            log.error("Error occurred while writing the validation result of " + result.getSource()
+                    + " to the report", e);
+        }
+    }
+
+    /**
+     * @return counters of the definition being validated by the current thread, or the summary of the run if the
+     * definition is not validated as a part of a folder
+     */
+    private static ValidationSummary counters() {
+        DefinitionReport report = DefinitionReport.current();
+        return report != null ? report.getCounts() : summary;
     }
 
     /**
      * @param swaggerFileContent swagger file content to be validated
-     * @param validationLevel    validation level [0,1,2]
+     * @param validationLevel    validation level [0,1,2,3]
+     * @return result of the validation
+     */
+    public static ValidationResult validateSwaggerContent(String swaggerFileContent, int validationLevel) {
+        return validateSwaggerContent(DefinitionParser.parse(swaggerFileContent), validationLevel);
+    }
+
+    /**
+     * Validate a definition within the time limit of a definition. A definition that exceeds the time limit, or
+     * exhausts the heap, is reported with the {@link ValidationResult.Status#LIMIT_EXCEEDED} status.
+     * @param definition      definition to be validated, deserialized once for all the validation stages
+     * @param validationLevel validation level [0,1,2,3]
+     * @return result of the validation
+     */
+    public static ValidationResult validateSwaggerContent(ParsedDefinition definition, int validationLevel) {
+        ValidationResult result = new ValidationResult();
+        ValidationSummary counts = counters();
+        ValidationSummary countsBefore = counts.snapshot();
+        try (DefinitionGuard ignored = DefinitionGuard.start()) {
+            validateDefinition(definition, validationLevel, result);
+        } catch (DefinitionGuard.LimitExceededError e) {
+            stopValidation(result, counts, countsBefore, Constants.VALIDATION_TIMEOUT_ERROR_CODE,
+                    Constants.VALIDATION_TIMEOUT_ERROR_MESSAGE, e.getMessage());
+        } catch (OutOfMemoryError e) {
+            stopValidation(result, counts, countsBefore, Constants.VALIDATION_MEMORY_LIMIT_ERROR_CODE,
+                    Constants.VALIDATION_MEMORY_LIMIT_ERROR_MESSAGE, "The heap was exhausted while validating the "
+                            + "definition: " + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Report a definition that exhausted the heap while it was read, before its validation was started.
+     * @param header top level fields of the definition, or null if they have not been read
+     * @param e      error thrown while the definition was read
+     * @return failed result of the definition
+     */
+    private static ValidationResult exhaustHeap(DefinitionHeader header, OutOfMemoryError e) {
+        ValidationResult result = createResult(header);
+        ValidationSummary counts = counters();
+        stopValidation(result, counts, counts.snapshot(), Constants.VALIDATION_MEMORY_LIMIT_ERROR_CODE,
+                Constants.VALIDATION_MEMORY_LIMIT_ERROR_MESSAGE, "The heap was exhausted while reading the "
+                        + "definition: " + e.getMessage());
+        return result;
+    }
+
+    /**
+     * Report a definition whose validation was stopped as it exceeded a limit. The counters updated by the stopped
+     * validation are rolled back, and the definition is counted as failed instead. The errors found before the
+     * validation was stopped are kept.
+     * @param result       result of the definition
+     * @param counts       counters of the definition
+     * @param countsBefore counters of the definition before the validation was started
+     * @param code         error code of the limit
+     * @param message      error message of the code
+     * @param detail       limit that was exceeded
+     */
+    private static void stopValidation(ValidationResult result, ValidationSummary counts,
+                                       ValidationSummary countsBefore, int code, String message, String detail) {
+        counts.rollback(countsBefore);
+        ValidationError error = ValidationError.coded(result.getSpecification(), code, message, detail);
+        result.addError(error);
+        result.setStatus(ValidationResult.Status.LIMIT_EXCEEDED);
+        DefinitionReport.error(log, error);
+        counts.incrementValidationFailedFileCount();
+        counts.incrementTotalLimitExceededFiles();
+    }
+
+    /**
+     * @param definition      definition to be validated
+     * @param validationLevel validation level [0,1,2,3]
+     * @param result          result the detected specification, the status and the errors are recorded in
      */
-    public static void validateSwaggerContent(String swaggerFileContent, int validationLevel) {
-        List<Object> swaggerTypeAndName = getSwaggerVersion(swaggerFileContent);
+    private static void validateDefinition(ParsedDefinition definition, int validationLevel,
+                                           ValidationResult result) {
+        long startTime = System.nanoTime();
+        List<Object> swaggerTypeAndName = getSwaggerVersion(definition, result);
+        metrics.recordStage(ValidationMetrics.Stage.VERSION_DETECTION, startTime);
 
         if (validationLevel == 1) {
             if (swaggerTypeAndName.get(0).equals(Constants.SwaggerVersion.ERROR) && swaggerTypeAndName.size() == 1) {
                 return;
             } else {
                 if (swaggerTypeAndName.get(0).equals(Constants.SwaggerVersion.SWAGGER)) {
-                    log.info("---------------- Parsing Started SwaggerName \"" + swaggerTypeAndName.get(1).toString() +
-                            "\" ----------------");
-                    swagger2Validator(swaggerFileContent, validationLevel);
-                    log.info("---------------- Parsing Complete SwaggerName \"" + swaggerTypeAndName.get(1).toString() +
-                            "\" ---------------- \n");
+                    if (DefinitionReport.isInfoEnabled(log)) {
+                        DefinitionReport.info(log, "---------------- Parsing Started SwaggerName \"" +
+                                swaggerTypeAndName.get(1).toString() + "\" ----------------");
+                    }
+                    swagger2Validator(definition, validationLevel, result,
+                            ValidationMetrics.Stage.SWAGGER_VALIDATION);
+                    if (DefinitionReport.isInfoEnabled(log)) {
+                        DefinitionReport.info(log, "---------------- Parsing Complete SwaggerName \"" +
+                                swaggerTypeAndName.get(1).toString() + "\" ---------------- \n");
+                    }
                 } else if (swaggerTypeAndName.get(0).equals(Constants.SwaggerVersion.OPEN_API)) {
-                    log.info("---------------- Parsing Started openApiName \"" + swaggerTypeAndName.get(1).toString() +
-                            "\" ----------------");
-                    boolean isOpenAPIMissing = swagger3Validator(swaggerFileContent, validationLevel);
+                    if (DefinitionReport.isInfoEnabled(log)) {
+                        DefinitionReport.info(log, "---------------- Parsing Started openApiName \"" +
+                                swaggerTypeAndName.get(1).toString() + "\" ----------------");
+                    }
+                    boolean isOpenAPIMissing = swagger3Validator(definition, validationLevel, result,
+                            ValidationMetrics.Stage.OPENAPI_VALIDATION);
                     if (isOpenAPIMissing) {
-                        swagger2Validator(swaggerFileContent, validationLevel);
+                        swagger2Validator(definition, validationLevel, result,
+                                ValidationMetrics.Stage.SWAGGER_FALLBACK);
+                    }
+                    if (DefinitionReport.isInfoEnabled(log)) {
+                        DefinitionReport.info(log, "---------------- Parsing Complete openApiName \"" +
+                                swaggerTypeAndName.get(1).toString() + "\" ----------------\n");
                     }
-                    log.info("---------------- Parsing Complete openApiName \"" + swaggerTypeAndName.get(1).toString() +
-                            "\" ----------------\n");
                 }
             }
         } else {
             if (swaggerTypeAndName.get(0).equals(Constants.SwaggerVersion.ERROR)) {
                 if (swaggerTypeAndName.size() == 2) {
-                    log.info("---------------- Parsing Started SwaggerName \"" + swaggerTypeAndName.get(1).toString() +
-                            "\" ----------------");
-                    boolean isOpenAPIMissing = swagger3Validator(swaggerFileContent, validationLevel);
+                    if (DefinitionReport.isInfoEnabled(log)) {
+                        DefinitionReport.info(log, "---------------- Parsing Started SwaggerName \"" +
+                                swaggerTypeAndName.get(1).toString() + "\" ----------------");
+                    }
+                    boolean isOpenAPIMissing = swagger3Validator(definition, validationLevel, result,
+                            ValidationMetrics.Stage.OPENAPI_VALIDATION);
                     boolean isSwaggerMissing;
                     if (isOpenAPIMissing) {
-                        isSwaggerMissing = swagger2Validator(swaggerFileContent, validationLevel);
+                        isSwaggerMissing = swagger2Validator(definition, validationLevel, result,
+                                ValidationMetrics.Stage.SWAGGER_FALLBACK);
                         if (isSwaggerMissing) {
-                            log.error("Invalid OpenAPI, Error Code: " + Constants.OPENAPI_PARSE_EXCEPTION_ERROR_CODE +
-                                    ", Error: " + Constants.OPENAPI_PARSE_EXCEPTION_ERROR_MESSAGE
-                                    + ", Swagger Error: " + Constants.SWAGGER_OR_OPENAPI_IS_MISSING_MSG);
+                            ValidationError error = ValidationError.coded(Constants.SwaggerVersion.OPEN_API,
+                                    Constants.OPENAPI_PARSE_EXCEPTION_ERROR_CODE,
+                                    Constants.OPENAPI_PARSE_EXCEPTION_ERROR_MESSAGE,
+                                    Constants.SWAGGER_OR_OPENAPI_IS_MISSING_MSG);
+                            result.addError(error);
+                            DefinitionReport.error(log, error);
                         }
                     }
-                    log.info("---------------- Parsing Complete SwaggerName \"" + swaggerTypeAndName.get(1).toString() +
-                            "\" ---------------- \n");
+                    if (DefinitionReport.isInfoEnabled(log)) {
+                        DefinitionReport.info(log, "---------------- Parsing Complete SwaggerName \"" +
+                                swaggerTypeAndName.get(1).toString() + "\" ---------------- \n");
+                    }
                 }
                 return;
             }
             if (swaggerTypeAndName.get(0).equals(Constants.SwaggerVersion.SWAGGER)) {
-                log.info("---------------- Parsing Started SwaggerName \"" + swaggerTypeAndName.get(1).toString() +
-                        "\" ----------------");
-                swagger2Validator(swaggerFileContent, validationLevel);
-                log.info("---------------- Parsing Complete SwaggerName \"" + swaggerTypeAndName.get(1).toString() +
-                        "\" ---------------- \n");
+                if (DefinitionReport.isInfoEnabled(log)) {
+                    DefinitionReport.info(log, "---------------- Parsing Started SwaggerName \"" +
+                            swaggerTypeAndName.get(1).toString() + "\" ----------------");
+                }
+                swagger2Validator(definition, validationLevel, result, ValidationMetrics.Stage.SWAGGER_VALIDATION);
+                if (DefinitionReport.isInfoEnabled(log)) {
+                    DefinitionReport.info(log, "---------------- Parsing Complete SwaggerName \"" +
+                            swaggerTypeAndName.get(1).toString() + "\" ---------------- \n");
+                }
             } else if (swaggerTypeAndName.get(0).equals(Constants.SwaggerVersion.OPEN_API)) {
-                log.info("---------------- Parsing Started openApiName \"" + swaggerTypeAndName.get(1).toString() +
-                        "\" ----------------");
-                boolean isOpenAPIMissing = swagger3Validator(swaggerFileContent, validationLevel);
+                if (DefinitionReport.isInfoEnabled(log)) {
+                    DefinitionReport.info(log, "---------------- Parsing Started openApiName \"" +
+                            swaggerTypeAndName.get(1).toString() + "\" ----------------");
+                }
+                boolean isOpenAPIMissing = swagger3Validator(definition, validationLevel, result,
+                        ValidationMetrics.Stage.OPENAPI_VALIDATION);
                 if (isOpenAPIMissing) {
-                    swagger2Validator(swaggerFileContent, validationLevel);
+                    swagger2Validator(definition, validationLevel, result, ValidationMetrics.Stage.SWAGGER_FALLBACK);
+                }
+                if (DefinitionReport.isInfoEnabled(log)) {
+                    DefinitionReport.info(log, "---------------- Parsing Complete openApiName \"" +
+                            swaggerTypeAndName.get(1).toString() + "\" ----------------\n");
                 }
-                log.info("---------------- Parsing Complete openApiName \"" + swaggerTypeAndName.get(1).toString() +
-                        "\" ----------------\n");
             }
         }
     }
 
     public static List<Object> getSwaggerVersion(String apiDefinition) {
+        return getSwaggerVersion(DefinitionParser.parse(apiDefinition));
+    }
+
+    public static List<Object> getSwaggerVersion(ParsedDefinition definition) {
+        return getSwaggerVersion(definition, new ValidationResult());
+    }
+
+    /**
+     * @param definition definition to be validated
+     * @param result     result the detected specification and name are recorded in
+     * @return detected specification, followed by the name of the definition if the definition could be read
+     */
+    public static List<Object> getSwaggerVersion(ParsedDefinition definition, ValidationResult result) {
         List<Object> swaggerTypeAndName = new ArrayList<>(2);
-        ObjectMapper mapper;
-        if (apiDefinition.trim().startsWith("{")) {
-            mapper = ObjectMapperFactory.createJson();
-        } else {
-            mapper = ObjectMapperFactory.createYaml();
-        }
-        JsonNode rootNode;
         ObjectNode node;
         try {
-            rootNode = mapper.readTree(apiDefinition.getBytes());
-            node = (ObjectNode) rootNode;
+            if (definition.getParseException() != null) {
+                throw definition.getParseException();
+            }
+            node = (ObjectNode) definition.getRootNode();
         } catch (Exception e) {
-            log.error("Error occurred while parsing OAS definition. Verify the provided definition format: " + e.getMessage());
+            ValidationError error = ValidationError.uncoded("Error occurred while parsing OAS definition. Verify " +
+                    "the provided definition format: " + e.getMessage());
+            result.addError(error);
+            result.setStatus(ValidationResult.Status.FAILED);
+            DefinitionReport.error(log, error);
             swaggerTypeAndName.add(Constants.SwaggerVersion.ERROR);
-            validationFailedFileCount++;
+            counters().incrementValidationFailedFileCount();
             return swaggerTypeAndName;
         }
         String name = getSwaggerFileName(node.get("info"));
+        result.setName(name);
         JsonNode openapi = node.get("openapi");
         if (openapi != null && openapi.asText().startsWith("3.")) {
 
+            result.setSpecification(Constants.SwaggerVersion.OPEN_API);
+            result.setSpecificationVersion(openapi.asText());
             swaggerTypeAndName.add(Constants.SwaggerVersion.OPEN_API);
             swaggerTypeAndName.add(name);
             return swaggerTypeAndName;
         }
         JsonNode swagger = node.get("swagger");
         if (swagger != null) {
+            result.setSpecification(Constants.SwaggerVersion.SWAGGER);
+            result.setSpecificationVersion(swagger.asText());
             swaggerTypeAndName.add(Constants.SwaggerVersion.SWAGGER);
             swaggerTypeAndName.add(name);
             return swaggerTypeAndName;
         }
 
-        log.error("Invalid OAS definition provided.");
+        ValidationError error = ValidationError.uncoded("Invalid OAS definition provided.");
+        result.addError(error);
+        result.setSpecification(Constants.SwaggerVersion.ERROR);
+        DefinitionReport.error(log, error);
         swaggerTypeAndName.add(Constants.SwaggerVersion.ERROR);
         swaggerTypeAndName.add(name);
         return swaggerTypeAndName;
@@ -233,39 +1009,47 @@ public class SwaggerTool {
     }
 
     public static boolean swagger2Validator(String swagger, int validationLevel) {
+        return swagger2Validator(DefinitionParser.parse(swagger), validationLevel);
+    }
+
+    public static boolean swagger2Validator(ParsedDefinition definition, int validationLevel) {
+        return swagger2Validator(definition, validationLevel, new ValidationResult());
+    }
+
+    /**
+     * @param definition      definition to be validated
+     * @param validationLevel validation level [0,1,2,3]
+     * @param result          result the status and the errors of the definition are recorded in
+     * @return whether the swagger field is missing in the definition
+     */
+    public static boolean swagger2Validator(ParsedDefinition definition, int validationLevel,
+                                            ValidationResult result) {
         boolean isSwaggerMissing = false;
         boolean isValidForAPIM = true;
-        SwaggerParser swaggerParser = new SwaggerParser();
-        OpenAPIParser parser= new OpenAPIParser();
-        ParseOptions options = new ParseOptions();
-        options.setResolve(true);
-        options.setFlatten(true);
-        options.setResolveFully(true);
-        SwaggerParseResult parseAttemptForV2 = parser.readContents(swagger, new ArrayList<>(), options);
+        SwaggerParseResult parseAttemptForV2 = isLazyResolution(validationLevel)
+                ? DefinitionParser.readSwaggerLazily(definition)
+                : DefinitionParser.readSwagger(definition, ParserContext.getSwaggerValidationOptions());
         if (parseAttemptForV2.getMessages().size() > 0) {
-             if (validationLevel == 1 || validationLevel == 2) {
+             if (validationLevel != 0) {
                 for (String message : parseAttemptForV2.getMessages()) {
-                    StringBuilder errorMessageBuilder = new StringBuilder("Invalid Swagger, Error Code: ");
+                    ValidationError error;
                     if (message.contains(Constants.SWAGGER_IS_MISSING_MSG)) {
-                        errorMessageBuilder.append(Constants.INVALID_OAS2_FOUND_ERROR_CODE)
-                                .append(", Error: ").append(Constants.INVALID_OAS2_FOUND_ERROR_MESSAGE)
-                                .append(", Swagger Error: ").append(Constants.SWAGGER_IS_MISSING_MSG);
-                        log.error(errorMessageBuilder.toString());
+                        error = ValidationError.coded(Constants.SwaggerVersion.SWAGGER,
+                                Constants.INVALID_OAS2_FOUND_ERROR_CODE, Constants.INVALID_OAS2_FOUND_ERROR_MESSAGE,
+                                Constants.SWAGGER_IS_MISSING_MSG);
                         isSwaggerMissing = true;
                     } else if (message.contains(Constants.MALFORMED_SWAGGER_ERROR)) {
-                        errorMessageBuilder.append(Constants.OPENAPI_PARSE_EXCEPTION_ERROR_CODE)
-                                .append(", Error: ").append(Constants.OPENAPI_PARSE_EXCEPTION_ERROR_MESSAGE)
-                                .append(", Swagger Error: ").append(message);
+                        error = ValidationError.coded(Constants.SwaggerVersion.SWAGGER,
+                                Constants.OPENAPI_PARSE_EXCEPTION_ERROR_CODE,
+                                Constants.OPENAPI_PARSE_EXCEPTION_ERROR_MESSAGE, message);
                         try {
-                            swaggerParser.parse(swagger);
-                            log.error(errorMessageBuilder.toString());
+                            DefinitionParser.parseSwagger(definition);
                         } catch (Exception e) {
                             if (e.getMessage().contains(Constants.UNABLE_TO_LOAD_REMOTE_REFERENCE)) {
-                                logRemoteReferenceIssues(swagger);
-                            } else {
-                                errorMessageBuilder.append(", Cause by: ").append(e.getMessage());
-                                log.error(errorMessageBuilder.toString());
+                                logRemoteReferenceIssues(definition, result);
+                                continue;
                             }
+                            error = error.withCause(e.getMessage());
                         }
                     } else {
                         if (isSchemaMissing(message)) {
@@ -276,60 +1060,110 @@ public class SwaggerTool {
                         if (message.contains(Constants.SCHEMA_REF_PATH)) {
                             message = message.replace(Constants.SCHEMA_REF_PATH, "#/definitions/");
                         }
-                        errorMessageBuilder.append(Constants.OPENAPI_PARSE_EXCEPTION_ERROR_CODE)
-                                .append(", Error: ").append(Constants.OPENAPI_PARSE_EXCEPTION_ERROR_MESSAGE)
-                                .append(", Swagger Error: ").append(message);
-                        log.error(errorMessageBuilder.toString());
+                        error = ValidationError.coded(Constants.SwaggerVersion.SWAGGER,
+                                Constants.OPENAPI_PARSE_EXCEPTION_ERROR_CODE,
+                                Constants.OPENAPI_PARSE_EXCEPTION_ERROR_MESSAGE, message);
                     }
+                    result.addError(error);
+                    DefinitionReport.error(log, error);
                 }
-                validationFailedFileCount++;
+                counters().incrementValidationFailedFileCount();
             }
             if (parseAttemptForV2.getOpenAPI() != null) {
-                log.info("Swagger passed with errors, using may lead to functionality issues.");
-                totalPartialyPasedSwaggerFiles++;
+                DefinitionReport.info(log, "Swagger passed with errors, using may lead to functionality issues.");
+                result.setStatus(ValidationResult.Status.PASSED_WITH_ERRORS);
+                counters().incrementTotalPartialyPasedSwaggerFiles();
             } else {
                 isValidForAPIM = false;
-                log.error("Malformed Swagger, Please fix the listed issues before proceeding");
-                totalMalformedSwaggerFiles++;
+                DefinitionReport.error(log, "Malformed Swagger, Please fix the listed issues before proceeding");
+                result.setStatus(ValidationResult.Status.MALFORMED);
+                counters().incrementTotalMalformedSwaggerFiles();
             }
         } else {
             if (parseAttemptForV2.getOpenAPI() != null) {
-                log.info("Swagger file is valid");
-                validationSuccessFileCount++;
+                DefinitionReport.info(log, "Swagger file is valid");
+                result.setStatus(ValidationResult.Status.VALID);
+                counters().incrementValidationSuccessFileCount();
             } else {
                 isValidForAPIM = false;
-                log.error(Constants.UNABLE_TO_RENDER_THE_DEFINITION_ERROR);
-                validationFailedFileCount++;
+                ValidationError error = ValidationError.uncoded(Constants.UNABLE_TO_RENDER_THE_DEFINITION_ERROR);
+                result.addError(error);
+                result.setStatus(ValidationResult.Status.FAILED);
+                DefinitionReport.error(log, error);
+                counters().incrementValidationFailedFileCount();
             }
         }
+        result.setAcceptedByAPIM(isValidForAPIM);
         if (isValidForAPIM) {
-            log.info("Swagger file will be accepted by the APIM 4.0.0 ");
+            DefinitionReport.info(log, "Swagger file will be accepted by the APIM 4.0.0 ");
         }
         return isSwaggerMissing;
     }
 
+    /**
+     * Run the Swagger 2 validator and record its time as the given stage.
+     * @param definition      definition to be validated
+     * @param validationLevel validation level [0,1,2,3]
+     * @param result          result the status and the errors of the definition are recorded in
+     * @param stage           stage the time of the validator is recorded as
+     * @return whether the swagger field is missing in the definition
+     */
+    private static boolean swagger2Validator(ParsedDefinition definition, int validationLevel,
+                                             ValidationResult result, ValidationMetrics.Stage stage) {
+        DefinitionGuard.check();
+        long startTime = System.nanoTime();
+        boolean isSwaggerMissing = swagger2Validator(definition, validationLevel, result);
+        metrics.recordStage(stage, startTime);
+        return isSwaggerMissing;
+    }
+
+    /**
+     * Level 0 only reports whether a definition is returned by the validator and level 3 only validates the
+     * structure and the references of a definition, hence they do not resolve the definition fully unless the full
+     * resolution is requested.
+     * @param validationLevel validation level [0,1,2,3]
+     * @return whether the definition is resolved only as far as the outcome of the validation depends on it
+     */
+    private static boolean isLazyResolution(int validationLevel) {
+        return lazyResolution && (validationLevel == 0 || validationLevel == 3);
+    }
+
     private static boolean isSchemaMissing(String errorMessage) {
         return errorMessage.contains(Constants.SCHEMA_REF_PATH) && errorMessage.contains("is missing");
     }
 
     public static boolean swagger3Validator(String swagger, int validationLevel) {
+        return swagger3Validator(DefinitionParser.parse(swagger), validationLevel);
+    }
+
+    public static boolean swagger3Validator(ParsedDefinition definition, int validationLevel) {
+        return swagger3Validator(definition, validationLevel, new ValidationResult());
+    }
+
+    /**
+     * @param definition      definition to be validated
+     * @param validationLevel validation level [0,1,2,3]
+     * @param result          result the status and the errors of the definition are recorded in
+     * @return whether the openapi field is missing in the definition
+     */
+    public static boolean swagger3Validator(ParsedDefinition definition, int validationLevel,
+                                            ValidationResult result) {
         boolean isOpenAPIMissing = false;
 
-        OpenAPIV3Parser openAPIV3Parser = new OpenAPIV3Parser();
-        ParseOptions options = new ParseOptions();
-        options.setResolve(true);
-        options.setResolveFully(true);
-        SwaggerParseResult parseResult = openAPIV3Parser.readContents(swagger, null, options);
+        SwaggerParseResult parseResult = isLazyResolution(validationLevel)
+                ? DefinitionParser.readOpenAPILazily(definition)
+                : DefinitionParser.readOpenAPI(definition, ParserContext.getOpenAPIValidationOptions());
         if (parseResult.getMessages().size() > 0) {
-            if (validationLevel == 1 || validationLevel == 2) {
+            if (validationLevel != 0) {
                 for (String message : parseResult.getMessages()) {
-                    StringBuilder errorMessageBuilder = new StringBuilder("Invalid OpenAPI, Error Code: ");
+                    ValidationError error;
                     if (message.contains(Constants.UNABLE_TO_LOAD_REMOTE_REFERENCE)) {
-                        logRemoteReferenceIssues(swagger);
+                        logRemoteReferenceIssues(definition, result);
+                        continue;
                     } else if (message.contains(Constants.OPENAPI_IS_MISSING_MSG)) {
-                        errorMessageBuilder.append(Constants.INVALID_OAS3_FOUND_ERROR_CODE)
-                                .append(", Error: ").append(Constants.INVALID_OAS3_FOUND_ERROR_MESSAGE);
-                        log.error(errorMessageBuilder.toString());
+                        error = ValidationError.coded(Constants.SwaggerVersion.OPEN_API,
+                                Constants.INVALID_OAS3_FOUND_ERROR_CODE, Constants.INVALID_OAS3_FOUND_ERROR_MESSAGE,
+                                null);
                         isOpenAPIMissing = true;
                     } else {
                         // If the error message contains "schema is unexpected", we modify the error message notifying
@@ -340,94 +1174,115 @@ public class SwaggerTool {
                                     "the OpenAPI Specification. Make sure that the reference object is of " +
                                     "format $ref: '#/components/schemas/{schemaName}'");
                         }
-                        errorMessageBuilder.append(Constants.OPENAPI_PARSE_EXCEPTION_ERROR_CODE)
-                                .append(", Error: ").append(Constants.OPENAPI_PARSE_EXCEPTION_ERROR_MESSAGE)
-                                .append(", Swagger Error: ").append(message);
-                        log.error(errorMessageBuilder.toString());
+                        error = ValidationError.coded(Constants.SwaggerVersion.OPEN_API,
+                                Constants.OPENAPI_PARSE_EXCEPTION_ERROR_CODE,
+                                Constants.OPENAPI_PARSE_EXCEPTION_ERROR_MESSAGE, message);
                     }
+                    result.addError(error);
+                    DefinitionReport.error(log, error);
                 }
             }
             if (!isOpenAPIMissing) {
                 if (parseResult.getOpenAPI() != null) {
-                    log.info("OpenAPI passed with errors, using may lead to functionality issues.");
-                    totalPartialyPasedSwaggerFiles++;
+                    DefinitionReport.info(log, "OpenAPI passed with errors, using may lead to functionality issues.");
+                    result.setStatus(ValidationResult.Status.PASSED_WITH_ERRORS);
+                    counters().incrementTotalPartialyPasedSwaggerFiles();
                 } else {
-                    log.error("Malformed OpenAPI, Please fix the listed issues before proceeding");
-                    ++totalMalformedSwaggerFiles;
+                    DefinitionReport.error(log, "Malformed OpenAPI, Please fix the listed issues before proceeding");
+                    result.setStatus(ValidationResult.Status.MALFORMED);
+                    counters().incrementTotalMalformedSwaggerFiles();
                 }
                 if (validationLevel != 0) {
-                    validationFailedFileCount++;
+                    counters().incrementValidationFailedFileCount();
                 }
             }
         } else {
             if (parseResult.getOpenAPI() != null) {
-                log.info("Swagger file is valid OpenAPI 3 definition");
-                validationSuccessFileCount++;
+                DefinitionReport.info(log, "Swagger file is valid OpenAPI 3 definition");
+                result.setStatus(ValidationResult.Status.VALID);
+                counters().incrementValidationSuccessFileCount();
             } else {
-                log.error(Constants.UNABLE_TO_RENDER_THE_DEFINITION_ERROR);
-                validationFailedFileCount++;
+                ValidationError error = ValidationError.uncoded(Constants.UNABLE_TO_RENDER_THE_DEFINITION_ERROR);
+                result.addError(error);
+                result.setStatus(ValidationResult.Status.FAILED);
+                DefinitionReport.error(log, error);
+                counters().incrementValidationFailedFileCount();
             }
         }
         return isOpenAPIMissing;
     }
 
+    /**
+     * Run the OpenAPI 3 validator and record its time as the given stage.
+     * @param definition      definition to be validated
+     * @param validationLevel validation level [0,1,2,3]
+     * @param result          result the status and the errors of the definition are recorded in
+     * @param stage           stage the time of the validator is recorded as
+     * @return whether the openapi field is missing in the definition
+     */
+    private static boolean swagger3Validator(ParsedDefinition definition, int validationLevel,
+                                             ValidationResult result, ValidationMetrics.Stage stage) {
+        DefinitionGuard.check();
+        long startTime = System.nanoTime();
+        boolean isOpenAPIMissing = swagger3Validator(definition, validationLevel, result);
+        metrics.recordStage(stage, startTime);
+        return isOpenAPIMissing;
+    }
+
     /**
      * This method will log the remote references in the given Swagger or OpenAPI definition.
      * @param apiDefinition Swagger or OpenAPI definition
      */
     public static void logRemoteReferenceIssues(String apiDefinition) {
-        log.warn("Validate the following remote references and make sure that they are valid and accessible:");
-
-        // Parse the Swagger or OpenAPI definition and extract the remote references by picking
-        // the values of the $ref ke
-        ObjectMapper mapper;
-        if (apiDefinition.trim().startsWith("{")) {
-            mapper = ObjectMapperFactory.createJson();
-        } else {
-            mapper = ObjectMapperFactory.createYaml();
-        }
+        logRemoteReferenceIssues(DefinitionParser.parse(apiDefinition));
+    }
 
-        JsonNode rootNode;
-        try {
-            rootNode = mapper.readTree(apiDefinition);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
-        List<JsonNode> refValues = findRefValues(rootNode);
+    /**
+     * This method will log the remote references in the given Swagger or OpenAPI definition.
+     * @param definition Swagger or OpenAPI definition, deserialized once for all the validation stages
+     */
+    public static void logRemoteReferenceIssues(ParsedDefinition definition) {
+        logRemoteReferenceIssues(definition, new ValidationResult());
+    }
 
-        for (JsonNode refValue : refValues) {
-            String remoteReference = refValue.toString();
+    /**
+     * This method will log the remote references in the given Swagger or OpenAPI definition.
+     * @param definition Swagger or OpenAPI definition, deserialized once for all the validation stages
+     * @param result     result the remote references are recorded in
+     */
+    public static void logRemoteReferenceIssues(ParsedDefinition definition, ValidationResult result) {
+        long startTime = System.nanoTime();
+        DefinitionReport.warn(log, "Validate the following remote references and make sure that they are valid and " +
+                "accessible:");
 
+        // Extract the remote references from the already parsed Swagger or OpenAPI definition by picking
+        // the values of the $ref ke
+        JsonNode rootNode = definition.getRootNode();
+        if (rootNode == null) {
+            throw new RuntimeException(definition.getParseException());
+        }
+        for (RefIndex.Ref ref : RefIndex.build(rootNode).getRefs()) {
             // If schema reference starts with #/components/schemas/ (OAS 3 ref objects) or #/definitions/ (Swagger ref objects), it is a local reference.
             // Hence, if reference does not start with a "#/", it is a remote reference.
-            if (!remoteReference.startsWith("\"#/")) {
-                log.warn(refValue.toString());
+            if (ref.getType() != RefIndex.RefType.LOCAL) {
+                result.addRemoteReference(ref.getText());
+                DefinitionReport.warn(log, ref.getValue().toString());
             }
         }
+        metrics.recordStage(ValidationMetrics.Stage.REMOTE_REFERENCES, startTime);
     }
 
     /**
-     * This method will recursively traverse the given JSON node and return a list of all the $ref values.
+     * This method will traverse the given JSON node and return a list of all the $ref values, in document order.
      * @param node JSON node
-     * @return List of $ref values
+     * @return list of all the $ref values
      */
     public static List<JsonNode> findRefValues(JsonNode node) {
-        List<JsonNode> refValues = new ArrayList<>();
-
-        if (node instanceof ObjectNode) {
-            ObjectNode objectNode = (ObjectNode) node;
-            objectNode.fields().forEachRemaining(entry -> {
-                if (entry.getKey().equals("$ref")) {
-                    refValues.add(entry.getValue());
-                } else {
-                    refValues.addAll(findRefValues(entry.getValue()));
-                }
-            });
-        } else if (node instanceof ArrayNode) {
-            ArrayNode arrayNode = (ArrayNode) node;
-            arrayNode.forEach(element -> refValues.addAll(findRefValues(element)));
+        List<RefIndex.Ref> refs = RefIndex.build(node).getRefs();
+        List<JsonNode> refValues = new ArrayList<>(refs.size());
+        for (RefIndex.Ref ref : refs) {
+            refValues.add(ref.getValue());
         }
-
         return refValues;
     }
 }
@@ -0,0 +1,445 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Command line options of the tool. The swagger location/content and the validation level are positional
+ * arguments, the remaining options are given as "--name value" pairs or "--flag" switches in any position.
+ */
+public class ToolOptions {
+    static final int DEFAULT_SLOWEST_COUNT = 10;
+    private static final String LOCATION_PREFIX = "location:";
+    /** Options given without a value. */
+    private static final Set<String> FLAGS = new HashSet<>(Arrays.asList(
+            "--bulk", "--quiet", "--follow-links", "--include-hidden", "--watch"));
+    /** Options followed by a value. */
+    private static final Set<String> VALUE_OPTIONS = new HashSet<>(Arrays.asList(
+            "--threads", "--server", "--output", "--format", "--cache", "--cache-size", "--heap-budget", "--include",
+            "--exclude", "--max-depth", "--ref-mirror", "--ref-cache-size", "--metrics", "--metrics-format",
+            "--slowest", "--input-format", "--timeout", "--definition-heap", "--shard", "--shard-dir", "--merge",
+            "--resolution", "--watch-delay"));
+
+    private String swaggerContent;
+    private int validationLevel = 2;
+    private int threads;
+    private int serverPort = -1;
+    private String outputPath;
+    private String outputFormat = "jsonl";
+    private boolean bulkLogging;
+    private boolean quiet;
+    private String cacheDirectory;
+    private int cacheSizeMegabytes = 512;
+    private int heapBudgetMegabytes;
+    private final List<String> includes = new ArrayList<>();
+    private final List<String> excludes = new ArrayList<>();
+    private int maxDepth = Integer.MAX_VALUE;
+    private boolean followLinks;
+    private boolean includeHidden;
+    private String refMirror;
+    private int refCacheSizeMegabytes = 128;
+    private String metricsPath;
+    private String metricsFormat = "prometheus";
+    private int slowestCount = DEFAULT_SLOWEST_COUNT;
+    private BatchInputReader.Format inputFormat;
+    private int timeoutSeconds;
+    private int definitionHeapMegabytes;
+    private Shard shard;
+    private String shardDirectory = ".";
+    private String mergeDirectory;
+    private boolean lazyResolution = true;
+    private boolean watch;
+    private int watchDelayMillis = 300;
+
+    /**
+     * @param args command line arguments
+     * @return parsed options, or null if the arguments are not valid
+     */
+    public static ToolOptions parse(String[] args) {
+        try {
+            return parseArgs(args);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static ToolOptions parseArgs(String[] args) {
+        ToolOptions options = new ToolOptions();
+        List<String> positionalArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            // anything else is positional, such as an inline YAML definition starting with the "---" marker
+            if (!FLAGS.contains(arg) && !VALUE_OPTIONS.contains(arg)) {
+                positionalArgs.add(arg);
+                continue;
+            }
+            if ("--bulk".equals(arg)) {
+                options.bulkLogging = true;
+                continue;
+            } else if ("--quiet".equals(arg)) {
+                options.quiet = true;
+                continue;
+            } else if ("--follow-links".equals(arg)) {
+                options.followLinks = true;
+                continue;
+            } else if ("--include-hidden".equals(arg)) {
+                options.includeHidden = true;
+                continue;
+            } else if ("--watch".equals(arg)) {
+                options.watch = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                return null;
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--threads":
+                    options.threads = Integer.parseInt(value);
+                    if (options.threads < 1) {
+                        return null;
+                    }
+                    break;
+                case "--server":
+                    options.serverPort = Integer.parseInt(value);
+                    if (options.serverPort < 0 || options.serverPort > 65535) {
+                        return null;
+                    }
+                    break;
+                case "--output":
+                    options.outputPath = value;
+                    break;
+                case "--format":
+                    if (!"jsonl".equals(value) && !"junit".equals(value)) {
+                        return null;
+                    }
+                    options.outputFormat = value;
+                    break;
+                case "--cache":
+                    options.cacheDirectory = value;
+                    break;
+                case "--cache-size":
+                    options.cacheSizeMegabytes = Integer.parseInt(value);
+                    if (options.cacheSizeMegabytes < 1) {
+                        return null;
+                    }
+                    break;
+                case "--heap-budget":
+                    options.heapBudgetMegabytes = Integer.parseInt(value);
+                    if (options.heapBudgetMegabytes < 1) {
+                        return null;
+                    }
+                    break;
+                case "--include":
+                    options.includes.addAll(Arrays.asList(value.split(",")));
+                    break;
+                case "--exclude":
+                    options.excludes.addAll(Arrays.asList(value.split(",")));
+                    break;
+                case "--max-depth":
+                    options.maxDepth = Integer.parseInt(value);
+                    if (options.maxDepth < 0) {
+                        return null;
+                    }
+                    break;
+                case "--ref-mirror":
+                    options.refMirror = value;
+                    break;
+                case "--ref-cache-size":
+                    options.refCacheSizeMegabytes = Integer.parseInt(value);
+                    if (options.refCacheSizeMegabytes < 1) {
+                        return null;
+                    }
+                    break;
+                case "--metrics":
+                    options.metricsPath = value;
+                    break;
+                case "--metrics-format":
+                    if (!"prometheus".equals(value) && !"json".equals(value)) {
+                        return null;
+                    }
+                    options.metricsFormat = value;
+                    break;
+                case "--slowest":
+                    options.slowestCount = Integer.parseInt(value);
+                    if (options.slowestCount < 0) {
+                        return null;
+                    }
+                    break;
+                case "--input-format":
+                    options.inputFormat = BatchInputReader.Format.of(value);
+                    if (options.inputFormat == null) {
+                        return null;
+                    }
+                    break;
+                case "--timeout":
+                    options.timeoutSeconds = Integer.parseInt(value);
+                    if (options.timeoutSeconds < 1) {
+                        return null;
+                    }
+                    break;
+                case "--definition-heap":
+                    options.definitionHeapMegabytes = Integer.parseInt(value);
+                    if (options.definitionHeapMegabytes < 1) {
+                        return null;
+                    }
+                    break;
+                case "--shard":
+                    options.shard = Shard.parse(value);
+                    if (options.shard == null) {
+                        return null;
+                    }
+                    break;
+                case "--shard-dir":
+                    options.shardDirectory = value;
+                    break;
+                case "--merge":
+                    options.mergeDirectory = value;
+                    break;
+                case "--resolution":
+                    if (!"lazy".equals(value) && !"full".equals(value)) {
+                        return null;
+                    }
+                    options.lazyResolution = "lazy".equals(value);
+                    break;
+                case "--watch-delay":
+                    options.watchDelayMillis = Integer.parseInt(value);
+                    if (options.watchDelayMillis < 0) {
+                        return null;
+                    }
+                    break;
+                default:
+                    return null;
+            }
+        }
+        if (options.isServerMode() || options.isMergeMode()) {
+            if (!positionalArgs.isEmpty() || options.watch) {
+                return null;
+            }
+            return options;
+        }
+        if (positionalArgs.isEmpty() || positionalArgs.size() > 2) {
+            return null;
+        }
+        options.swaggerContent = positionalArgs.get(0);
+        // only a file or a folder can be watched, not an inline definition or the standard input
+        if (options.watch && (!options.swaggerContent.startsWith(LOCATION_PREFIX)
+                || "-".equals(options.swaggerContent.substring(LOCATION_PREFIX.length())))) {
+            return null;
+        }
+        if (positionalArgs.size() == 2) {
+            options.validationLevel = Integer.parseInt(positionalArgs.get(1));
+            if (options.validationLevel < 0 || options.validationLevel > 3) {
+                return null;
+            }
+        }
+        return options;
+    }
+
+    public String getSwaggerContent() {
+        return swaggerContent;
+    }
+
+    public int getValidationLevel() {
+        return validationLevel;
+    }
+
+    public int getThreads() {
+        return threads > 0 ? threads : 1;
+    }
+
+    /**
+     * @return number of requests validated concurrently in the server mode, defaults to the number of processors
+     */
+    public int getServerThreads() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    public boolean isServerMode() {
+        return serverPort >= 0;
+    }
+
+    public int getServerPort() {
+        return serverPort;
+    }
+
+    /**
+     * @return whether the results of the shards written to the merge folder are merged instead of validating a
+     * location
+     */
+    public boolean isMergeMode() {
+        return mergeDirectory != null;
+    }
+
+    /**
+     * @return folder the results of the shards are merged from
+     */
+    public String getMergeDirectory() {
+        return mergeDirectory;
+    }
+
+    /**
+     * @return shard of the location validated by this run, or null if the run is not sharded
+     */
+    public Shard getShard() {
+        return shard;
+    }
+
+    /**
+     * @return folder the result of the shard is written to
+     */
+    public String getShardDirectory() {
+        return shardDirectory;
+    }
+
+    /**
+     * @return whether the location is watched and validated again on every change once it is validated
+     */
+    public boolean isWatchMode() {
+        return watch;
+    }
+
+    /**
+     * @return time in milliseconds the location has to be quiet for before its changes are validated
+     */
+    public int getWatchDelayMillis() {
+        return watchDelayMillis;
+    }
+
+    public String getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    public int getCacheSizeMegabytes() {
+        return cacheSizeMegabytes;
+    }
+
+    /**
+     * @return report file the results are written to, or null if no report is requested
+     */
+    public String getOutputPath() {
+        return outputPath;
+    }
+
+    /**
+     * @return format of the report file, jsonl or junit
+     */
+    public String getOutputFormat() {
+        return outputFormat;
+    }
+
+    /**
+     * @return whether the log output is written with the bulk logging profile
+     */
+    public boolean isBulkLogging() {
+        return bulkLogging;
+    }
+
+    /**
+     * @return whether only the errors, the warnings and the per-file summary lines are logged
+     */
+    public boolean isQuiet() {
+        return quiet;
+    }
+
+    /**
+     * @return heap the definitions validated at the same time may use in MB, or 0 if no budget is given, in which
+     * case a share of the maximum heap is used without rejecting any definition
+     */
+    public int getHeapBudgetMegabytes() {
+        return heapBudgetMegabytes;
+    }
+
+    /**
+     * @return time in seconds the validation of a single definition may take, or 0 if the time is not limited
+     */
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    /**
+     * @return heap in MB a single definition may be estimated to need, or 0 if only the heap budget applies
+     */
+    public int getDefinitionHeapMegabytes() {
+        return definitionHeapMegabytes;
+    }
+
+    /**
+     * @return discovery of the swagger files in a folder, as configured by the include, exclude, max depth, follow
+     * links and include hidden options, limited to the files of the shard of the run
+     */
+    public FileDiscovery getFileDiscovery() {
+        return new FileDiscovery(includes, excludes, maxDepth, followLinks, includeHidden,
+                shard != null ? shard : Shard.ALL);
+    }
+
+    /**
+     * @return reader of the archives and the streams of definitions, as configured by the input format option and
+     * filtering the entries of the archives the same way as the files of a folder
+     */
+    public BatchInputReader getBatchInputReader() {
+        return new BatchInputReader(inputFormat, getFileDiscovery());
+    }
+
+    /**
+     * @return whether levels 0 and 3 resolve the definitions only as far as the outcome of the validation depends on
+     * it, instead of resolving them fully as the other levels do
+     */
+    public boolean isLazyResolution() {
+        return lazyResolution;
+    }
+
+    /**
+     * @return file the metrics of the run are written to, or null if no metrics file is requested
+     */
+    public String getMetricsPath() {
+        return metricsPath;
+    }
+
+    /**
+     * @return format of the metrics file, prometheus or json
+     */
+    public String getMetricsFormat() {
+        return metricsFormat;
+    }
+
+    /**
+     * @return number of the slowest definitions listed at the end of the run
+     */
+    public int getSlowestCount() {
+        return slowestCount;
+    }
+
+    /**
+     * @return cache of the files and URLs referenced by the definitions, as configured by the ref mirror and ref
+     * cache size options
+     */
+    public ExternalDocumentCache getExternalDocumentCache() {
+        return new ExternalDocumentCache(refCacheSizeMegabytes * 1024L * 1024L,
+                refMirror != null ? Paths.get(refMirror) : null);
+    }
+}
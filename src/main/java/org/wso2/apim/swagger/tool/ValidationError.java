@@ -0,0 +1,135 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A validation error of a definition. Coded errors carry one of the API Manager error codes in {@link Constants}
+ * together with the error message of the code and the error reported by the parser; errors without a code only carry
+ * a message. The log line of the error is only built when it is written, see {@link #toString()}.
+ */
+@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+public class ValidationError {
+    private final Constants.SwaggerVersion specification;
+    private final int code;
+    private final String message;
+    private final String detail;
+    private final String cause;
+
+    @JsonCreator
+    public ValidationError(@JsonProperty("specification") Constants.SwaggerVersion specification,
+                           @JsonProperty("code") int code, @JsonProperty("message") String message,
+                           @JsonProperty("detail") String detail, @JsonProperty("cause") String cause) {
+        this.specification = specification;
+        this.code = code;
+        this.message = message;
+        this.detail = detail;
+        this.cause = cause;
+    }
+
+    /**
+     * @param specification Swagger 2 or OpenAPI 3, the specification the definition was validated against, or null or
+     *                      {@link Constants.SwaggerVersion#ERROR} if the specification of the definition is not known
+     * @param code          error code in {@link Constants}
+     * @param message       error message of the code
+     * @param detail        error reported by the parser, or null if there is none
+     * @return coded validation error
+     */
+    public static ValidationError coded(Constants.SwaggerVersion specification, int code, String message,
+                                        String detail) {
+        return new ValidationError(specification, code, message, detail, null);
+    }
+
+    /**
+     * @param message error message
+     * @return validation error without an error code
+     */
+    public static ValidationError uncoded(String message) {
+        return new ValidationError(null, 0, message, null, null);
+    }
+
+    /**
+     * @param cause cause of the error
+     * @return copy of this error with the given cause
+     */
+    public ValidationError withCause(String cause) {
+        return new ValidationError(specification, code, message, detail, cause);
+    }
+
+    public Constants.SwaggerVersion getSpecification() {
+        return specification;
+    }
+
+    /**
+     * @return error code in {@link Constants}, or 0 if the error does not have a code
+     */
+    public int getCode() {
+        return code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public String getCause() {
+        return cause;
+    }
+
+    /**
+     * @return log line of the error
+     */
+    @Override
+    public String toString() {
+        if (code == 0) {
+            return message;
+        }
+        StringBuilder errorMessageBuilder = new StringBuilder(getPrefix());
+        errorMessageBuilder.append(", Error Code: ").append(code).append(", Error: ").append(message);
+        if (detail != null) {
+            errorMessageBuilder.append(", Swagger Error: ").append(detail);
+        }
+        if (cause != null) {
+            errorMessageBuilder.append(", Cause by: ").append(cause);
+        }
+        return errorMessageBuilder.toString();
+    }
+
+    /**
+     * @return start of the log line, which names the specification of the definition if it is known, as a limit can
+     * stop a definition before its specification is detected
+     */
+    private String getPrefix() {
+        if (specification == Constants.SwaggerVersion.SWAGGER) {
+            return "Invalid Swagger";
+        }
+        if (specification == Constants.SwaggerVersion.OPEN_API) {
+            return "Invalid OpenAPI";
+        }
+        return "Invalid definition";
+    }
+}
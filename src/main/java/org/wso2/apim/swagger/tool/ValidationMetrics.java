@@ -0,0 +1,468 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timing and volume metrics of a validation run: a latency histogram of every validation stage and of the whole
+ * validation of a file, the bytes processed, the number of validation errors of each error code and the slowest
+ * definitions of the run. The metrics are updated concurrently by the validation workers, hence all the updates are
+ * lock free except for the slowest definitions.
+ * <p>
+ * The metrics are written as a summary table at the end of the run, and can be written to a file in the Prometheus
+ * text format or as JSON.
+ */
+public class ValidationMetrics {
+    /**
+     * Upper bounds of the histogram buckets in milliseconds, the last bucket has no upper bound.
+     */
+    private static final double[] BUCKET_BOUNDS_MILLIS = {0.5, 1, 2.5, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000,
+            10000, 30000, 60000};
+    private static final String UNCODED_ERROR = "uncoded";
+    private static final String PROMETHEUS_PREFIX = "swagger_validator_";
+
+    private final Histogram[] stageLatencies = new Histogram[Stage.values().length];
+    private final Histogram fileLatency = new Histogram();
+    private final LongAdder bytesProcessed = new LongAdder();
+    private final Map<String, LongAdder> errorCounts = new ConcurrentHashMap<>();
+    private final int slowestCount;
+    private final PriorityQueue<FileTiming> slowestFiles = new PriorityQueue<>(
+            Comparator.comparingLong(FileTiming::getNanos));
+    private final long startTime = System.nanoTime();
+
+    /**
+     * Stages of the validation of a definition.
+     */
+    public enum Stage {
+        /** Reading the definition and deserializing it into a JSON tree. */
+        READ("read"),
+        /** Detecting the specification and the name of the definition. */
+        VERSION_DETECTION("version_detection"),
+        /** Parsing and validating the definition as OpenAPI 3. */
+        OPENAPI_VALIDATION("openapi_validation"),
+        /** Parsing and validating the definition as Swagger 2. */
+        SWAGGER_VALIDATION("swagger_validation"),
+        /** Validating the definition as Swagger 2 after the OpenAPI 3 validator did not find the openapi field. */
+        SWAGGER_FALLBACK("swagger_fallback"),
+        /** Listing the remote references, which is also part of the validation stage that found them. */
+        REMOTE_REFERENCES("remote_references");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * @param slowestCount number of the slowest definitions to keep
+     */
+    public ValidationMetrics(int slowestCount) {
+        this.slowestCount = slowestCount;
+        for (int i = 0; i < stageLatencies.length; i++) {
+            stageLatencies[i] = new Histogram();
+        }
+    }
+
+    /**
+     * Record a stage of the definition validated by the current thread, which started at the given time.
+     * @param stage     validation stage
+     * @param startTime {@link System#nanoTime()} at the start of the stage
+     */
+    public void recordStage(Stage stage, long startTime) {
+        long nanos = System.nanoTime() - startTime;
+        stageLatencies[stage.ordinal()].record(nanos);
+        DefinitionReport report = DefinitionReport.current();
+        if (report != null) {
+            report.addStageTime(stage, nanos);
+        }
+    }
+
+    /**
+     * Record a validated definition, which started at the given time.
+     * @param source    file the definition was read from, or a description of where it came from
+     * @param startTime {@link System#nanoTime()} at the start of the validation
+     * @param bytes     size of the definition
+     * @param result    result of the validation
+     * @param report    report of the definition, with the time spent in each stage, or null if there is none
+     */
+    public void recordFile(String source, long startTime, long bytes, ValidationResult result,
+                           DefinitionReport report) {
+        long nanos = System.nanoTime() - startTime;
+        fileLatency.record(nanos);
+        bytesProcessed.add(bytes);
+        for (ValidationError error : result.getErrors()) {
+            String code = error.getCode() != 0 ? String.valueOf(error.getCode()) : UNCODED_ERROR;
+            errorCounts.computeIfAbsent(code, key -> new LongAdder()).increment();
+        }
+        if (slowestCount > 0) {
+            synchronized (slowestFiles) {
+                if (slowestFiles.size() < slowestCount || slowestFiles.peek().nanos < nanos) {
+                    slowestFiles.add(new FileTiming(source, nanos, bytes,
+                            report != null ? report.getStageNanos() : null));
+                    if (slowestFiles.size() > slowestCount) {
+                        slowestFiles.poll();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return slowest definitions of the run, the slowest first
+     */
+    public List<FileTiming> getSlowestFiles() {
+        List<FileTiming> files;
+        synchronized (slowestFiles) {
+            files = new ArrayList<>(slowestFiles);
+        }
+        files.sort(Comparator.comparingLong(FileTiming::getNanos).reversed());
+        return files;
+    }
+
+    /**
+     * @param summary counters of the run
+     * @return summary table of the run, starting with the summary line of the counters
+     */
+    public String toTable(ValidationSummary summary) {
+        StringBuilder table = new StringBuilder(summary.toString());
+        table.append(String.format(Locale.ROOT, "%n%-20s %8s %12s %10s %10s %10s %10s %10s", "Stage", "Count",
+                "Total ms", "Mean ms", "p50 ms", "p90 ms", "p99 ms", "Max ms"));
+        for (Stage stage : Stage.values()) {
+            appendRow(table, stage.getLabel(), stageLatencies[stage.ordinal()]);
+        }
+        appendRow(table, "file", fileLatency);
+        long elapsedNanos = System.nanoTime() - startTime;
+        table.append(String.format(Locale.ROOT, "%nBytes processed: %d in %.1f s", bytesProcessed.sum(),
+                elapsedNanos / 1e9));
+        Map<String, Long> errors = getErrorCounts();
+        if (!errors.isEmpty()) {
+            table.append(String.format(Locale.ROOT, "%nErrors by code:"));
+            for (Map.Entry<String, Long> error : errors.entrySet()) {
+                table.append(String.format(Locale.ROOT, "%n  %-10s %8d", error.getKey(), error.getValue()));
+            }
+        }
+        List<FileTiming> slowest = getSlowestFiles();
+        if (!slowest.isEmpty()) {
+            table.append(String.format(Locale.ROOT, "%nSlowest definitions:"));
+            for (FileTiming file : slowest) {
+                table.append(String.format(Locale.ROOT, "%n  %10.1f ms %10d bytes  %s", toMillis(file.nanos),
+                        file.bytes, file.source));
+                if (file.stageNanos != null) {
+                    StringBuilder stages = new StringBuilder();
+                    for (Stage stage : Stage.values()) {
+                        if (file.stageNanos[stage.ordinal()] > 0) {
+                            stages.append(stages.length() == 0 ? " (" : ", ").append(stage.getLabel())
+                                    .append(String.format(Locale.ROOT, " %.1f ms",
+                                            toMillis(file.stageNanos[stage.ordinal()])));
+                        }
+                    }
+                    if (stages.length() > 0) {
+                        table.append(stages).append(')');
+                    }
+                }
+            }
+        }
+        return table.toString();
+    }
+
+    private static void appendRow(StringBuilder table, String name, Histogram histogram) {
+        long count = histogram.getCount();
+        table.append(String.format(Locale.ROOT, "%n%-20s %8d %12.1f %10.1f %10.1f %10.1f %10.1f %10.1f", name, count,
+                toMillis(histogram.getSumNanos()), count > 0 ? toMillis(histogram.getSumNanos()) / count : 0,
+                histogram.percentileMillis(0.5), histogram.percentileMillis(0.9), histogram.percentileMillis(0.99),
+                toMillis(histogram.getMaxNanos())));
+    }
+
+    /**
+     * Write the metrics to the given file.
+     * @param summary    counters of the run
+     * @param format     prometheus or json
+     * @param outputPath metrics file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(ValidationSummary summary, String format, Path outputPath) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
+            if ("json".equals(format)) {
+                ObjectMapper mapper = new ObjectMapper();
+                mapper.writerWithDefaultPrettyPrinter().writeValue(writer, toJson(mapper, summary));
+            } else {
+                writer.write(toPrometheus(summary));
+            }
+        }
+    }
+
+    /**
+     * @param mapper  mapper the JSON tree is created with
+     * @param summary counters of the run
+     * @return metrics of the run as a JSON tree
+     */
+    public ObjectNode toJson(ObjectMapper mapper, ValidationSummary summary) {
+        ObjectNode node = mapper.createObjectNode();
+        ObjectNode files = node.putObject("files");
+        files.put("processed", summary.getTotalFileCount());
+        files.put("successful", summary.getValidationSuccessFileCount());
+        files.put("failed", summary.getValidationFailedFileCount());
+        files.put("malformed", summary.getTotalMalformedSwaggerFiles());
+        files.put("passedWithErrors", summary.getTotalPartialyPasedSwaggerFiles());
+        files.put("limitExceeded", summary.getTotalLimitExceededFiles());
+        node.put("bytesProcessed", bytesProcessed.sum());
+        node.put("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        ObjectNode stages = node.putObject("stages");
+        for (Stage stage : Stage.values()) {
+            stages.set(stage.getLabel(), histogramNode(mapper, stageLatencies[stage.ordinal()]));
+        }
+        node.set("file", histogramNode(mapper, fileLatency));
+        ObjectNode errors = node.putObject("errors");
+        for (Map.Entry<String, Long> error : getErrorCounts().entrySet()) {
+            errors.put(error.getKey(), error.getValue());
+        }
+        ArrayNode slowest = node.putArray("slowest");
+        for (FileTiming file : getSlowestFiles()) {
+            ObjectNode fileNode = slowest.addObject();
+            fileNode.put("source", file.source);
+            fileNode.put("millis", toMillis(file.nanos));
+            fileNode.put("bytes", file.bytes);
+            if (file.stageNanos != null) {
+                ObjectNode fileStages = fileNode.putObject("stages");
+                for (Stage stage : Stage.values()) {
+                    if (file.stageNanos[stage.ordinal()] > 0) {
+                        fileStages.put(stage.getLabel(), toMillis(file.stageNanos[stage.ordinal()]));
+                    }
+                }
+            }
+        }
+        return node;
+    }
+
+    private static ObjectNode histogramNode(ObjectMapper mapper, Histogram histogram) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("count", histogram.getCount());
+        node.put("totalMillis", toMillis(histogram.getSumNanos()));
+        node.put("p50Millis", histogram.percentileMillis(0.5));
+        node.put("p90Millis", histogram.percentileMillis(0.9));
+        node.put("p99Millis", histogram.percentileMillis(0.99));
+        node.put("maxMillis", toMillis(histogram.getMaxNanos()));
+        return node;
+    }
+
+    /**
+     * @param summary counters of the run
+     * @return metrics of the run in the Prometheus text exposition format
+     */
+    public String toPrometheus(ValidationSummary summary) {
+        StringBuilder text = new StringBuilder();
+        String files = PROMETHEUS_PREFIX + "files_total";
+        text.append("# HELP ").append(files).append(" Definitions validated, by result\n");
+        text.append("# TYPE ").append(files).append(" counter\n");
+        appendSample(text, files, "result=\"processed\"", summary.getTotalFileCount());
+        appendSample(text, files, "result=\"successful\"", summary.getValidationSuccessFileCount());
+        appendSample(text, files, "result=\"failed\"", summary.getValidationFailedFileCount());
+        appendSample(text, files, "result=\"malformed\"", summary.getTotalMalformedSwaggerFiles());
+        appendSample(text, files, "result=\"passed_with_errors\"", summary.getTotalPartialyPasedSwaggerFiles());
+        appendSample(text, files, "result=\"limit_exceeded\"", summary.getTotalLimitExceededFiles());
+
+        String bytes = PROMETHEUS_PREFIX + "bytes_processed_total";
+        text.append("# HELP ").append(bytes).append(" Size of the validated definitions\n");
+        text.append("# TYPE ").append(bytes).append(" counter\n");
+        appendSample(text, bytes, null, bytesProcessed.sum());
+
+        String stageDuration = PROMETHEUS_PREFIX + "stage_duration_seconds";
+        text.append("# HELP ").append(stageDuration).append(" Time spent in each validation stage\n");
+        text.append("# TYPE ").append(stageDuration).append(" histogram\n");
+        for (Stage stage : Stage.values()) {
+            appendHistogram(text, stageDuration, "stage=\"" + stage.getLabel() + "\"",
+                    stageLatencies[stage.ordinal()]);
+        }
+
+        String fileDuration = PROMETHEUS_PREFIX + "file_duration_seconds";
+        text.append("# HELP ").append(fileDuration).append(" Time spent validating each definition\n");
+        text.append("# TYPE ").append(fileDuration).append(" histogram\n");
+        appendHistogram(text, fileDuration, null, fileLatency);
+
+        String errors = PROMETHEUS_PREFIX + "errors_total";
+        text.append("# HELP ").append(errors).append(" Validation errors, by error code\n");
+        text.append("# TYPE ").append(errors).append(" counter\n");
+        for (Map.Entry<String, Long> error : getErrorCounts().entrySet()) {
+            appendSample(text, errors, "code=\"" + error.getKey() + "\"", error.getValue());
+        }
+
+        String slowest = PROMETHEUS_PREFIX + "slowest_file_duration_seconds";
+        text.append("# HELP ").append(slowest).append(" Time spent validating the slowest definitions\n");
+        text.append("# TYPE ").append(slowest).append(" gauge\n");
+        for (FileTiming file : getSlowestFiles()) {
+            text.append(slowest).append("{source=\"").append(escapeLabel(file.source)).append("\"} ")
+                    .append(toSeconds(file.nanos)).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static void appendHistogram(StringBuilder text, String name, String labels, Histogram histogram) {
+        String labelPrefix = labels != null ? labels + "," : "";
+        long cumulativeCount = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            cumulativeCount += histogram.buckets.get(i);
+            String upperBoundSeconds = BigDecimal.valueOf(BUCKET_BOUNDS_MILLIS[i]).movePointLeft(3)
+                    .stripTrailingZeros().toPlainString();
+            text.append(name).append("_bucket{").append(labelPrefix).append("le=\"").append(upperBoundSeconds)
+                    .append("\"} ").append(cumulativeCount).append('\n');
+        }
+        text.append(name).append("_bucket{").append(labelPrefix).append("le=\"+Inf\"} ")
+                .append(histogram.getCount()).append('\n');
+        appendSample(text, name + "_sum", labels, toSeconds(histogram.getSumNanos()));
+        appendSample(text, name + "_count", labels, histogram.getCount());
+    }
+
+    private static void appendSample(StringBuilder text, String name, String labels, Object value) {
+        text.append(name);
+        if (labels != null) {
+            text.append('{').append(labels).append('}');
+        }
+        text.append(' ').append(value).append('\n');
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private Map<String, Long> getErrorCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> error : errorCounts.entrySet()) {
+            counts.put(error.getKey(), error.getValue().sum());
+        }
+        return counts;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    /**
+     * Latency histogram with fixed buckets. Percentiles are estimated as the upper bound of the bucket they fall in,
+     * capped at the largest recorded value.
+     */
+    private static class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            double millis = toMillis(nanos);
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MILLIS.length && millis > BUCKET_BOUNDS_MILLIS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            count.increment();
+            sumNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        long getCount() {
+            return count.sum();
+        }
+
+        long getSumNanos() {
+            return sumNanos.sum();
+        }
+
+        long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        double percentileMillis(double percentile) {
+            long total = getCount();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile * total);
+            long cumulativeCount = 0;
+            double max = toMillis(getMaxNanos());
+            for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+                cumulativeCount += buckets.get(i);
+                if (cumulativeCount >= rank) {
+                    return Math.min(BUCKET_BOUNDS_MILLIS[i], max);
+                }
+            }
+            return max;
+        }
+    }
+
+    /**
+     * Validation time of a single definition.
+     */
+    public static class FileTiming {
+        private final String source;
+        private final long nanos;
+        private final long bytes;
+        private final long[] stageNanos;
+
+        FileTiming(String source, long nanos, long bytes, long[] stageNanos) {
+            this.source = source;
+            this.nanos = nanos;
+            this.bytes = bytes;
+            this.stageNanos = stageNanos;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+}
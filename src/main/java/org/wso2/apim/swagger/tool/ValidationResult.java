@@ -0,0 +1,145 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of the validation of a single definition: the detected specification and name of the definition, the
+ * overall status, the coded validation errors and the remote references found in the definition.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ValidationResult {
+    private String source;
+    private Constants.SwaggerVersion specification;
+    private String specificationVersion;
+    private String name;
+    private Status status = Status.FAILED;
+    private Boolean acceptedByAPIM;
+    private List<ValidationError> errors = new ArrayList<>();
+    private List<String> remoteReferences = new ArrayList<>();
+
+    /**
+     * Overall status of a definition.
+     */
+    public enum Status {
+        /** The definition is valid. */
+        VALID,
+        /** The definition was parsed, but the parser reported errors. */
+        PASSED_WITH_ERRORS,
+        /** The definition could not be parsed into a model. */
+        MALFORMED,
+        /** The definition could not be read or does not specify a valid version. */
+        FAILED,
+        /** The validation of the definition was stopped as it exceeded the time or the memory limit. */
+        LIMIT_EXCEEDED,
+    }
+
+    /**
+     * @return file the definition was read from, or null if the definition was given inline
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    /**
+     * @return specification detected from the version field of the definition
+     */
+    public Constants.SwaggerVersion getSpecification() {
+        return specification;
+    }
+
+    public void setSpecification(Constants.SwaggerVersion specification) {
+        this.specification = specification;
+    }
+
+    /**
+     * @return value of the swagger or openapi field of the definition
+     */
+    public String getSpecificationVersion() {
+        return specificationVersion;
+    }
+
+    public void setSpecificationVersion(String specificationVersion) {
+        this.specificationVersion = specificationVersion;
+    }
+
+    /**
+     * @return title of the definition
+     */
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    /**
+     * @return whether the Swagger 2 definition will be accepted by API Manager 4.0.0, null for OpenAPI 3 definitions
+     */
+    public Boolean getAcceptedByAPIM() {
+        return acceptedByAPIM;
+    }
+
+    public void setAcceptedByAPIM(Boolean acceptedByAPIM) {
+        this.acceptedByAPIM = acceptedByAPIM;
+    }
+
+    public List<ValidationError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ValidationError> errors) {
+        this.errors = errors;
+    }
+
+    public void addError(ValidationError error) {
+        errors.add(error);
+    }
+
+    public List<String> getRemoteReferences() {
+        return remoteReferences;
+    }
+
+    public void setRemoteReferences(List<String> remoteReferences) {
+        this.remoteReferences = remoteReferences;
+    }
+
+    public void addRemoteReference(String remoteReference) {
+        remoteReferences.add(remoteReference);
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the validator resident and validates definitions posted to a local HTTP endpoint, so that repeated
+ * validations do not pay for the JVM startup, the class loading of the parsers and a cold JIT every time.
+ * <p>
+ * POST /validate?level=N with the definition as the request body returns the {@link ValidationResult} of the
+ * definition as JSON, together with the log messages of the definition. Definitions are validated within the heap
+ * budget of the tool, the same way as the definitions of a batch input, and a request body too large to be read within
+ * the budget is rejected with status 413.
+ * GET /summary returns the counters of all the definitions validated since the server was started, GET /metrics
+ * returns their timing and volume metrics in the Prometheus text format and GET /health can be used to check whether
+ * the server is up. The server only listens on the loopback interface.
+ */
+public class ValidationServer implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ValidationServer.class);
+    private static final String JSON_CONTENT_TYPE = "application/json";
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final int STOP_DELAY_SECONDS = 5;
+
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+    private final int defaultValidationLevel;
+    private final ValidationSummary summary = new ValidationSummary();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * @param port                   port to listen on, 0 to pick a free port
+     * @param threads                number of requests validated concurrently
+     * @param defaultValidationLevel validation level used when the request does not specify one
+     * @throws IOException if the server cannot be bound to the port
+     */
+    public ValidationServer(int port, int threads, int defaultValidationLevel) throws IOException {
+        this.defaultValidationLevel = defaultValidationLevel;
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(threads, new RequestThreadFactory());
+        httpServer.setExecutor(executor);
+        httpServer.createContext("/validate", this::handleValidate);
+        httpServer.createContext("/summary", exchange -> sendJson(exchange, 200, summary.toJson(mapper)));
+        httpServer.createContext("/metrics", exchange -> send(exchange, 200, PROMETHEUS_CONTENT_TYPE,
+                SwaggerTool.metrics.toPrometheus(summary).getBytes(StandardCharsets.UTF_8)));
+        httpServer.createContext("/health", exchange -> sendJson(exchange, 200,
+                mapper.createObjectNode().put("status", "UP")));
+    }
+
+    public void start() {
+        httpServer.start();
+        log.info("Swagger validation server started on http://" + httpServer.getAddress().getHostString() + ":"
+                + getPort() + "/validate");
+    }
+
+    /**
+     * @return port the server is listening on
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * @return counters of all the definitions validated since the server was started
+     */
+    public ValidationSummary getSummary() {
+        return summary;
+    }
+
+    /**
+     * Stop accepting requests, wait a while for the requests in progress and stop the request threads.
+     */
+    @Override
+    public void close() {
+        httpServer.stop(STOP_DELAY_SECONDS);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(STOP_DELAY_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Swagger validation server stopped. " + summary);
+    }
+
+    private void handleValidate(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Only POST is supported, post the definition as the request body");
+                return;
+            }
+            int validationLevel;
+            try {
+                validationLevel = getValidationLevel(exchange.getRequestURI().getRawQuery());
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+            long maxBodyBytes = SwaggerTool.heapBudget.getMaxBufferedBytes();
+            byte[] definition;
+            try {
+                definition = readBody(exchange, maxBodyBytes);
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+            if (definition == null) {
+                sendError(exchange, 413, "Request body exceeds the limit of " + maxBodyBytes + " bytes a definition "
+                        + "may be read with, post a smaller definition or raise the heap of the server");
+                return;
+            }
+            if (definition.length == 0) {
+                sendError(exchange, 400, "Request body is empty, post the definition as the request body");
+                return;
+            }
+            long startTime = System.nanoTime();
+            // The messages of the definition are returned in the response, hence they are collected regardless of the
+            // log level
+            DefinitionReport report = DefinitionReport.open(log, true);
+            report.getCounts().incrementTotalFileCount();
+            ValidationResult result;
+            try {
+                result = SwaggerTool.validateSwaggerEntry(report, definition, validationLevel);
+                SwaggerTool.metrics.recordFile("request " + exchange.getRemoteAddress(), startTime,
+                        definition.length, result, report);
+            } finally {
+                DefinitionReport.close(summary);
+            }
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            sendJson(exchange, 200, resultNode(result, report, validationLevel, durationMillis));
+        } catch (RuntimeException e) {
+            log.error("Error occurred while validating the posted definition", e);
+            sendError(exchange, 500, "Error occurred while validating the definition: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private int getValidationLevel(String query) {
+        if (query == null) {
+            return defaultValidationLevel;
+        }
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith("level=")) {
+                String level = parameter.substring("level=".length());
+                if (!level.matches("[0-3]")) {
+                    throw new IllegalArgumentException("Invalid validation level " + level
+                            + ", expected 0, 1, 2 or 3");
+                }
+                return Integer.parseInt(level);
+            }
+        }
+        return defaultValidationLevel;
+    }
+
+    private ObjectNode resultNode(ValidationResult result, DefinitionReport report, int validationLevel,
+                                  long durationMillis) {
+        ObjectNode resultNode = mapper.valueToTree(result);
+        resultNode.put("validationLevel", validationLevel);
+        resultNode.put("durationMillis", durationMillis);
+        ArrayNode messages = resultNode.putArray("messages");
+        for (DefinitionReport.Entry entry : report.getEntries(0)) {
+            ObjectNode message = messages.addObject();
+            message.put("level", entry.getLevel().name());
+            message.put("message", entry.getMessage());
+            if (entry.getThrowable() != null) {
+                message.put("exception", entry.getThrowable().toString());
+            }
+        }
+        return resultNode;
+    }
+
+    private void sendError(HttpExchange exchange, int statusCode, String message) throws IOException {
+        sendJson(exchange, statusCode, mapper.createObjectNode().put("error", message));
+    }
+
+    private void sendJson(HttpExchange exchange, int statusCode, ObjectNode body) throws IOException {
+        send(exchange, statusCode, JSON_CONTENT_TYPE, mapper.writeValueAsBytes(body));
+    }
+
+    private static void send(HttpExchange exchange, int statusCode, String contentType, byte[] bytes)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    /**
+     * @param exchange     request to read the body of
+     * @param maxBodyBytes size of the largest body that may be read
+     * @return body of the request, or null if it is larger than the given size, which is known from the content length
+     * of the request before the body is read if the request has one
+     * @throws IllegalArgumentException if the content length of the request is not a number
+     */
+    private static byte[] readBody(HttpExchange exchange, long maxBodyBytes) throws IOException {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null && getContentLength(contentLength) > maxBodyBytes) {
+            return null;
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        InputStream inputStream = exchange.getRequestBody();
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            if (outputStream.size() + (long) read > maxBodyBytes) {
+                return null;
+            }
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static long getContentLength(String contentLength) {
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid Content-Length " + contentLength
+                    + ", expected the size of the request body in bytes", e);
+        }
+    }
+
+    private static class RequestThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, "validation-request-" + threadCount.incrementAndGet());
+        }
+    }
+}
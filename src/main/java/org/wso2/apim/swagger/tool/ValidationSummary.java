@@ -0,0 +1,178 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Aggregated validation counters of a validation run. The counters are updated concurrently by the validation
+ * workers, hence all the updates are atomic.
+ */
+public class ValidationSummary {
+    private final AtomicInteger totalFileCount = new AtomicInteger();
+    private final AtomicInteger validationFailedFileCount = new AtomicInteger();
+    private final AtomicInteger validationSuccessFileCount = new AtomicInteger();
+    private final AtomicInteger totalMalformedSwaggerFiles = new AtomicInteger();
+    private final AtomicInteger totalPartialyPasedSwaggerFiles = new AtomicInteger();
+    private final AtomicInteger totalLimitExceededFiles = new AtomicInteger();
+
+    public ValidationSummary() {
+    }
+
+    public ValidationSummary(int totalFileCount, int validationFailedFileCount, int validationSuccessFileCount,
+                             int totalMalformedSwaggerFiles, int totalPartialyPasedSwaggerFiles) {
+        this.totalFileCount.set(totalFileCount);
+        this.validationFailedFileCount.set(validationFailedFileCount);
+        this.validationSuccessFileCount.set(validationSuccessFileCount);
+        this.totalMalformedSwaggerFiles.set(totalMalformedSwaggerFiles);
+        this.totalPartialyPasedSwaggerFiles.set(totalPartialyPasedSwaggerFiles);
+    }
+
+    public void incrementTotalFileCount() {
+        totalFileCount.incrementAndGet();
+    }
+
+    public void incrementValidationFailedFileCount() {
+        validationFailedFileCount.incrementAndGet();
+    }
+
+    public void incrementValidationSuccessFileCount() {
+        validationSuccessFileCount.incrementAndGet();
+    }
+
+    public void incrementTotalMalformedSwaggerFiles() {
+        totalMalformedSwaggerFiles.incrementAndGet();
+    }
+
+    public void incrementTotalPartialyPasedSwaggerFiles() {
+        totalPartialyPasedSwaggerFiles.incrementAndGet();
+    }
+
+    public void incrementTotalLimitExceededFiles() {
+        totalLimitExceededFiles.incrementAndGet();
+    }
+
+    /**
+     * @return copy of the current counters, to roll back the updates of a definition whose validation is stopped
+     */
+    public ValidationSummary snapshot() {
+        ValidationSummary snapshot = new ValidationSummary();
+        snapshot.add(this);
+        return snapshot;
+    }
+
+    /**
+     * Undo the updates made to the counters since the given snapshot was taken. Only used for the counters of a
+     * single definition, which are not updated by other threads in the meantime.
+     * @param snapshot earlier copy of the counters
+     */
+    public void rollback(ValidationSummary snapshot) {
+        totalFileCount.set(snapshot.getTotalFileCount());
+        validationFailedFileCount.set(snapshot.getValidationFailedFileCount());
+        validationSuccessFileCount.set(snapshot.getValidationSuccessFileCount());
+        totalMalformedSwaggerFiles.set(snapshot.getTotalMalformedSwaggerFiles());
+        totalPartialyPasedSwaggerFiles.set(snapshot.getTotalPartialyPasedSwaggerFiles());
+        totalLimitExceededFiles.set(snapshot.getTotalLimitExceededFiles());
+    }
+
+    /**
+     * Add the counters of the given summary to this summary.
+     * @param other summary to be added
+     */
+    public void add(ValidationSummary other) {
+        totalFileCount.addAndGet(other.getTotalFileCount());
+        validationFailedFileCount.addAndGet(other.getValidationFailedFileCount());
+        validationSuccessFileCount.addAndGet(other.getValidationSuccessFileCount());
+        totalMalformedSwaggerFiles.addAndGet(other.getTotalMalformedSwaggerFiles());
+        totalPartialyPasedSwaggerFiles.addAndGet(other.getTotalPartialyPasedSwaggerFiles());
+        totalLimitExceededFiles.addAndGet(other.getTotalLimitExceededFiles());
+    }
+
+    /**
+     * @param mapper mapper the node is created with
+     * @return counters as a JSON object, keyed by the names of the counters
+     */
+    public ObjectNode toJson(ObjectMapper mapper) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("totalFileCount", getTotalFileCount());
+        node.put("validationSuccessFileCount", getValidationSuccessFileCount());
+        node.put("validationFailedFileCount", getValidationFailedFileCount());
+        node.put("totalMalformedSwaggerFiles", getTotalMalformedSwaggerFiles());
+        node.put("totalPartialyPasedSwaggerFiles", getTotalPartialyPasedSwaggerFiles());
+        node.put("totalLimitExceededFiles", getTotalLimitExceededFiles());
+        return node;
+    }
+
+    /**
+     * @param node counters written by {@link #toJson(ObjectMapper)}
+     * @return summary holding the given counters
+     */
+    public static ValidationSummary fromJson(JsonNode node) {
+        ValidationSummary summary = new ValidationSummary(node.path("totalFileCount").asInt(),
+                node.path("validationFailedFileCount").asInt(), node.path("validationSuccessFileCount").asInt(),
+                node.path("totalMalformedSwaggerFiles").asInt(), node.path("totalPartialyPasedSwaggerFiles").asInt());
+        summary.totalLimitExceededFiles.set(node.path("totalLimitExceededFiles").asInt());
+        return summary;
+    }
+
+    public int getTotalFileCount() {
+        return totalFileCount.get();
+    }
+
+    public int getValidationFailedFileCount() {
+        return validationFailedFileCount.get();
+    }
+
+    public int getValidationSuccessFileCount() {
+        return validationSuccessFileCount.get();
+    }
+
+    public int getTotalMalformedSwaggerFiles() {
+        return totalMalformedSwaggerFiles.get();
+    }
+
+    public int getTotalPartialyPasedSwaggerFiles() {
+        return totalPartialyPasedSwaggerFiles.get();
+    }
+
+    /**
+     * @return number of the definitions whose validation was stopped as it exceeded the time or the memory limit,
+     * which are also counted as failed
+     */
+    public int getTotalLimitExceededFiles() {
+        return totalLimitExceededFiles.get();
+    }
+
+    @Override
+    public String toString() {
+        String summary = "Summary --- Total Files Processed: " + getTotalFileCount() + ". Total Successful Files Count "
+                + getValidationSuccessFileCount() + ". Total Failed Files Count: " + getValidationFailedFileCount()
+                + ". Total Malformed Swagger File Count: " + getTotalMalformedSwaggerFiles();
+        if (getTotalLimitExceededFiles() > 0) {
+            summary += ". Total Limit Exceeded File Count: " + getTotalLimitExceededFiles();
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The shortcuts of levels 0 and 3 must not change the status of any definition of the corpus: the lazy resolution
+ * of level 0 is compared with its full resolution, and level 3 with level 2. The corpus holds Swagger 2, OpenAPI 3.0
+ * and OpenAPI 3.1 definitions with local, file, remote, missing and circular references, invalid schemas and
+ * operations, YAML definitions with duplicate keys or a malformed structure, and files that are not definitions. Its
+ * remote references point to a closed local port.
+ */
+public class CompatibilityTest {
+    private static final String CORPUS = "/compatibility";
+    private static final int CORPUS_DEFINITIONS = 103;
+    private static final int THREADS = 4;
+
+    @BeforeClass
+    public static void setUp() {
+        DefinitionReport.setQuiet(true);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        DefinitionReport.setQuiet(false);
+        SwaggerTool.lazyResolution = true;
+    }
+
+    @Test
+    public void lazyResolutionMatchesFullResolution() throws URISyntaxException {
+        SwaggerTool.lazyResolution = false;
+        List<String> expected = validate(0);
+        SwaggerTool.lazyResolution = true;
+        assertEquals("Results of level 0 with the lazy resolution", expected, validate(0));
+    }
+
+    @Test
+    public void structureLevelMatchesFullValidation() throws URISyntaxException {
+        SwaggerTool.lazyResolution = true;
+        List<String> expected = validate(2);
+        assertEquals("Results of level 3", expected, validate(3));
+    }
+
+    /**
+     * @return source and status of each definition of the corpus, ordered by the source
+     */
+    private static List<String> validate(int validationLevel) throws URISyntaxException {
+        Path location = Paths.get(CompatibilityTest.class.getResource(CORPUS).toURI());
+        List<String> results = Collections.synchronizedList(new ArrayList<>());
+        ResultWriter previousWriter = SwaggerTool.resultWriter;
+        SwaggerTool.resultWriter = new ResultWriter() {
+            @Override
+            public void write(ValidationResult result) {
+                results.add(location.relativize(Paths.get(result.getSource())) + " " + result.getStatus());
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try {
+            SwaggerTool.validateSwaggerFromLocation(location.toString(), validationLevel, THREADS);
+        } finally {
+            SwaggerTool.resultWriter = previousWriter;
+        }
+        List<String> sortedResults = new ArrayList<>(results);
+        Collections.sort(sortedResults);
+        assertEquals("Definitions validated at level " + validationLevel, CORPUS_DEFINITIONS, sortedResults.size());
+        return sortedResults;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.fail;
+
+/**
+ * The resolution of a definition is stopped once the definition has exceeded its time limit. Each definition is
+ * parsed after its time limit has passed, hence the first check of the guard stops it.
+ */
+public class DefinitionGuardTest {
+    private long previousTimeoutMillis;
+
+    @Before
+    public void setUp() {
+        previousTimeoutMillis = DefinitionGuard.getTimeoutMillis();
+        DefinitionGuard.setTimeoutMillis(1);
+    }
+
+    @After
+    public void tearDown() {
+        DefinitionGuard.setTimeoutMillis(previousTimeoutMillis);
+    }
+
+    @Test
+    public void openAPI31DereferenceIsStopped() throws InterruptedException {
+        assertStopped(DefinitionParser.parse("{\"openapi\": \"3.1.0\", \"info\": {\"title\": \"T\", \"version\": "
+                + "\"1\"}, \"paths\": {}, \"components\": {\"schemas\": {\"Pet\": {\"type\": \"object\"}}}}"));
+    }
+
+    @Test
+    public void swaggerRoundTripIsStopped() throws InterruptedException {
+        assertStopped(DefinitionParser.parse("{\"swagger\": \"2.0\", \"info\": {\"title\": \"T\", \"version\": "
+                + "\"1\"}, \"paths\": {}, \"definitions\": {\"Pet\": {\"type\": \"object\"}}}"));
+    }
+
+    private static void assertStopped(ParsedDefinition definition) throws InterruptedException {
+        try (DefinitionGuard ignored = DefinitionGuard.start()) {
+            Thread.sleep(5);
+            DefinitionParser.readSwaggerLazily(definition);
+            fail("Resolution of the definition was not stopped");
+        } catch (DefinitionGuard.LimitExceededError e) {
+            // expected
+        }
+    }
+}
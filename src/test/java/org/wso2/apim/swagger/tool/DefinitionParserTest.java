@@ -0,0 +1,74 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import org.junit.Test;
+
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DefinitionParserTest {
+    @Test
+    public void malformedJsonIsReportedWithTheByteSource() {
+        ParsedDefinition definition = DefinitionParser.parse("{\"openapi\": \"3.0.1\", \"info\": [unclosed\n");
+        assertNull(definition.getRootNode());
+        assertNotNull(definition.getParseException());
+        String message = definition.getParseException().getMessage();
+        assertTrue(message, message.contains("[Source: (byte[])"));
+        assertTrue(message, message.contains("line: 1, column: 40]"));
+    }
+
+    @Test
+    public void malformedYamlIsReportedWithTheByteSource() throws Exception {
+        ParsedDefinition definition = DefinitionParser.parse(fixture("yaml-malformed.yaml"));
+        assertNull(definition.getRootNode());
+        assertNotNull(definition.getParseException());
+        String message = definition.getParseException().getMessage();
+        assertTrue(message, message.contains("[Source: (byte[])"));
+    }
+
+    @Test
+    public void yamlWithDuplicateKeyFails() throws Exception {
+        ParsedDefinition definition = DefinitionParser.parse(fixture("yaml-duplicatekey.yaml"));
+        assertNull(definition.getRootNode());
+        assertNotNull(definition.getParseException());
+        String message = definition.getParseException().getMessage();
+        assertTrue(message, message.startsWith("Duplicate field 'info'"));
+
+        DefinitionReport.setQuiet(true);
+        try {
+            ValidationResult result = SwaggerTool.validateSwaggerContent(definition, 0);
+            assertEquals(ValidationResult.Status.FAILED, result.getStatus());
+        } finally {
+            DefinitionReport.setQuiet(false);
+        }
+    }
+
+    private static Path fixture(String name) throws URISyntaxException {
+        return Paths.get(DefinitionParserTest.class.getResource("/compatibility/" + name).toURI());
+    }
+}
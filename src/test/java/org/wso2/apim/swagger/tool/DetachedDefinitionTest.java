@@ -0,0 +1,112 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Definitions of archives and streams have no folder, hence their relative references must not be resolved against
+ * the working folder. The references of these definitions point to a file that exists relative to the working folder
+ * of the build.
+ */
+public class DetachedDefinitionTest {
+    private static final String SCHEMAS = "target/test-classes/compatibility/common/";
+
+    private static ResultWriter previousWriter;
+    private static ValidationResult lastResult;
+
+    @BeforeClass
+    public static void setUp() {
+        DefinitionReport.setQuiet(true);
+        previousWriter = SwaggerTool.resultWriter;
+        SwaggerTool.resultWriter = new ResultWriter() {
+            @Override
+            public void write(ValidationResult result) {
+                lastResult = result;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        DefinitionReport.setQuiet(false);
+        SwaggerTool.resultWriter = previousWriter;
+    }
+
+    @Test
+    public void relativeReferencesAreNotResolvedAgainstTheWorkingFolder() {
+        assertTrue(Files.isRegularFile(Paths.get(SCHEMAS, "schemas.json")));
+        assertNotEquals(ValidationResult.Status.VALID, validate(swagger()).getStatus());
+        assertRemoteReference(validate(openAPI("3.0.1")));
+        assertRemoteReference(validate(openAPI("3.1.0")));
+    }
+
+    @Test
+    public void relativeReferencesOfFilesAreResolved() throws Exception {
+        Path file = Paths.get("target", "detached-definition-test.json").toAbsolutePath();
+        Files.write(file, openAPI("3.1.0").replace("./" + SCHEMAS, "./test-classes/compatibility/common/")
+                .getBytes(StandardCharsets.UTF_8));
+        try {
+            SwaggerTool.validateSwaggerFile(file, 2);
+            assertEquals(ValidationResult.Status.VALID, lastResult.getStatus());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void assertRemoteReference(ValidationResult result) {
+        assertEquals(ValidationResult.Status.PASSED_WITH_ERRORS, result.getStatus());
+        assertEquals(1, result.getRemoteReferences().size());
+    }
+
+    private static ValidationResult validate(String definition) {
+        SwaggerTool.validateSwaggerEntry("entry", definition.getBytes(StandardCharsets.UTF_8), 2);
+        return lastResult;
+    }
+
+    private static String openAPI(String version) {
+        return "{\"openapi\": \"" + version + "\", \"info\": {\"title\": \"T\", \"version\": \"1\"}, \"paths\": "
+                + "{\"/p\": {\"get\": {\"responses\": {\"200\": {\"description\": \"ok\", \"content\": "
+                + "{\"application/json\": {\"schema\": {\"$ref\": \"./" + SCHEMAS + "oas-schemas.json"
+                + "#/components/schemas/Pet\"}}}}}}}}}";
+    }
+
+    private static String swagger() {
+        return "{\"swagger\": \"2.0\", \"info\": {\"title\": \"S\", \"version\": \"1\"}, \"paths\": {\"/p\": "
+                + "{\"get\": {\"produces\": [\"application/json\"], \"responses\": {\"200\": {\"description\": "
+                + "\"ok\", \"schema\": {\"$ref\": \"./" + SCHEMAS + "schemas.json#/Pet\"}}}}}}}";
+    }
+}
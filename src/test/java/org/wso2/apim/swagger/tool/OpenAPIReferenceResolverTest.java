@@ -0,0 +1,66 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import io.swagger.v3.parser.core.models.SwaggerParseResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * References into the files referenced by an OpenAPI 3.0 definition are reported as the parser reports them.
+ */
+public class OpenAPIReferenceResolverTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void nameInArrayIsNotFound() throws IOException {
+        SwaggerParseResult result = resolve("./schemas.json#/list/Pet");
+        assertTrue(result.getMessages().toString(),
+                result.getMessages().contains("Could not find list/Pet in contents of ./schemas.json"));
+    }
+
+    @Test
+    public void indexInArrayIsFound() throws IOException {
+        SwaggerParseResult result = resolve("./schemas.json#/list/0");
+        assertTrue(result.getMessages().toString(), result.getMessages().isEmpty());
+    }
+
+    private SwaggerParseResult resolve(String ref) throws IOException {
+        Path schemas = folder.getRoot().toPath().resolve("schemas.json");
+        Files.write(schemas, "{\"list\": [{\"type\": \"object\"}]}".getBytes(StandardCharsets.UTF_8));
+        Path definition = folder.getRoot().toPath().resolve("openapi.json");
+        Files.write(definition, ("{\"openapi\": \"3.0.1\", \"info\": {\"title\": \"T\", \"version\": \"1\"}, "
+                + "\"paths\": {\"/p\": {\"get\": {\"responses\": {\"200\": {\"description\": \"ok\", \"content\": "
+                + "{\"application/json\": {\"schema\": {\"$ref\": \"" + ref + "\"}}}}}}}}}")
+                .getBytes(StandardCharsets.UTF_8));
+        return DefinitionParser.readOpenAPI(DefinitionParser.parse(definition),
+                ParserContext.getReferenceOptions());
+    }
+}
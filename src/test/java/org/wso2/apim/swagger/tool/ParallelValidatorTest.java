@@ -0,0 +1,172 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Validating a folder with several worker threads must give every definition the same result as validating it with
+ * a single thread, whatever the order the definitions are validated in.
+ */
+public class ParallelValidatorTest {
+    private static final int DEFINITIONS_PER_SPECIFICATION = 20;
+    private static final int THREADS = 8;
+    private static final int PARALLEL_RUNS = 3;
+
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUp() {
+        DefinitionReport.setQuiet(true);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        DefinitionReport.setQuiet(false);
+    }
+
+    @Test
+    public void parallelRunMatchesSingleThreadedRun() throws IOException {
+        Path location = folder.newFolder("definitions").toPath();
+        for (int i = 0; i < DEFINITIONS_PER_SPECIFICATION; i++) {
+            write(location.resolve("openapi31-" + i + ".yaml"), openAPI("3.1.0", i));
+            write(location.resolve("openapi30-" + i + ".yaml"), openAPI("3.0.1", i));
+            write(location.resolve("swagger-" + i + ".yaml"), swagger(i));
+        }
+        for (int level = 0; level <= 3; level++) {
+            List<String> expected = validate(location, level, 1);
+            assertEquals(DEFINITIONS_PER_SPECIFICATION * 3, expected.size());
+            if (level >= 2) {
+                for (String result : expected) {
+                    assertTrue("Missing reference not reported: " + result, result.contains("Missing"));
+                }
+            }
+            for (int run = 0; run < PARALLEL_RUNS; run++) {
+                assertEquals("Results of level " + level + " with " + THREADS + " threads", expected,
+                        validate(location, level, THREADS));
+            }
+        }
+    }
+
+    @Test
+    public void definitionFailingTheParserIsReportedAsFailed() throws IOException {
+        Path location = folder.newFolder("untitled").toPath();
+        // the name of a definition with an info object but no title cannot be read
+        write(location.resolve("untitled.yaml"), "openapi: 3.0.1\ninfo:\n  version: \"1.0\"\npaths: {}\n");
+        write(location.resolve("titled.yaml"), openAPI("3.0.1", 0));
+        for (int threads : new int[] {1, THREADS}) {
+            int failedBefore = SwaggerTool.summary.getValidationFailedFileCount();
+            List<String> results = validate(location, 0, threads);
+            assertEquals("Results with " + threads + " threads", 2, results.size());
+            assertTrue(results.get(1), results.get(1).contains("untitled.yaml FAILED"));
+            assertTrue(results.get(1), results.get(1).contains("NullPointerException"));
+            assertEquals(failedBefore + 1, SwaggerTool.summary.getValidationFailedFileCount());
+        }
+    }
+
+    /**
+     * @return result of each definition of the location as a line of the source, the status and the errors, ordered
+     * by the source
+     */
+    private static List<String> validate(Path location, int validationLevel, int threads) {
+        List<String> results = Collections.synchronizedList(new ArrayList<>());
+        ResultWriter previousWriter = SwaggerTool.resultWriter;
+        SwaggerTool.resultWriter = new ResultWriter() {
+            @Override
+            public void write(ValidationResult result) {
+                results.add(result.getSource() + " " + result.getStatus() + " " + result.getErrors());
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try {
+            SwaggerTool.validateSwaggerFromLocation(location.toString(), validationLevel, threads);
+        } finally {
+            SwaggerTool.resultWriter = previousWriter;
+        }
+        List<String> sortedResults = new ArrayList<>(results);
+        Collections.sort(sortedResults);
+        return sortedResults;
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String openAPI(String version, int index) {
+        return "openapi: " + version + "\n"
+                + "info:\n"
+                + "  title: api " + index + "\n"
+                + "  version: \"1.0\"\n"
+                + "paths:\n"
+                + "  /pets" + index + ":\n"
+                + "    get:\n"
+                + "      responses:\n"
+                + "        \"200\":\n"
+                + "          description: ok\n"
+                + "          content:\n"
+                + "            application/json:\n"
+                + "              schema:\n"
+                + "                $ref: '#/components/schemas/Missing" + index + "'\n"
+                + "components:\n"
+                + "  schemas:\n"
+                + "    Pet" + index + ":\n"
+                + "      type: object\n";
+    }
+
+    private static String swagger(int index) {
+        return "swagger: \"2.0\"\n"
+                + "info:\n"
+                + "  title: api " + index + "\n"
+                + "  version: \"1.0\"\n"
+                + "paths:\n"
+                + "  /pets" + index + ":\n"
+                + "    get:\n"
+                + "      produces:\n"
+                + "        - application/json\n"
+                + "      responses:\n"
+                + "        \"200\":\n"
+                + "          description: ok\n"
+                + "          schema:\n"
+                + "            $ref: '#/definitions/Missing" + index + "'\n"
+                + "definitions:\n"
+                + "  Pet" + index + ":\n"
+                + "    type: object\n";
+    }
+}
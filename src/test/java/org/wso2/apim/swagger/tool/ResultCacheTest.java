@@ -0,0 +1,116 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ResultCacheTest {
+    private static final long MAX_SIZE_BYTES = 1024 * 1024;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void sizeIsTrackedWhenAResultIsReplaced() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        ResultCache cache = ResultCache.open(directory, MAX_SIZE_BYTES);
+        String key = cache.key("openapi: 3.0.1".getBytes(StandardCharsets.UTF_8), 2);
+        for (int i = 0; i < 3; i++) {
+            ValidationResult result = new ValidationResult();
+            result.setName("run " + i);
+            cache.put(key, Collections.emptyList(), new ValidationSummary(), result);
+        }
+        assertEquals(entriesSize(directory), cache.getSizeBytes());
+        assertEquals(entriesSize(directory), ResultCache.open(directory, MAX_SIZE_BYTES).getSizeBytes());
+    }
+
+    @Test
+    public void sizeIsTrackedWhileResultsAreEvicted() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        // small enough for most of the results cached at the same time to evict others
+        ResultCache cache = ResultCache.open(directory, 4 * 1024);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                String key = cache.key(("openapi: 3.0." + i).getBytes(StandardCharsets.UTF_8), 2);
+                ValidationResult result = new ValidationResult();
+                result.setName("definition " + i);
+                futures.add(executor.submit(() -> cache.put(key, Collections.emptyList(), new ValidationSummary(),
+                        result)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(entriesSize(directory), cache.getSizeBytes());
+        assertEquals(0, filesEndingWith(directory, ".tmp"));
+    }
+
+    @Test
+    public void staleTemporaryFilesAreDeleted() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        ResultCache.open(directory, MAX_SIZE_BYTES);
+        Path staleFile = Files.createDirectories(directory.resolve("ab")).resolve("ab.json123.tmp");
+        Files.write(staleFile, new byte[16]);
+        Files.setLastModifiedTime(staleFile, FileTime.fromMillis(System.currentTimeMillis() - 2 * 60 * 60 * 1000));
+        Path recentFile = directory.resolve("ab").resolve("ab.json456.tmp");
+        Files.write(recentFile, new byte[16]);
+        ResultCache.open(directory, MAX_SIZE_BYTES);
+        assertFalse(Files.exists(staleFile));
+        // a recent temporary file can belong to another process caching a result at the same time
+        assertTrue(Files.exists(recentFile));
+    }
+
+    private static long filesEndingWith(Path directory, String suffix) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(path -> path.toString().endsWith(suffix)).count();
+        }
+    }
+
+    private static long entriesSize(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(path -> path.toString().endsWith(".json")).mapToLong(path -> path.toFile().length())
+                    .sum();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ToolOptionsTest {
+    private static final String INLINE_YAML = "---\nswagger: \"2.0\"\ninfo:\n  title: inline\n  version: \"1\"\n"
+            + "paths: {}\n";
+
+    @Test
+    public void inlineYamlWithDocumentMarkerIsTheSwaggerContent() {
+        ToolOptions options = ToolOptions.parse(new String[]{INLINE_YAML, "1"});
+        assertNotNull(options);
+        assertEquals(INLINE_YAML, options.getSwaggerContent());
+        assertEquals(1, options.getValidationLevel());
+    }
+
+    @Test
+    public void optionsAreParsedInAnyPosition() {
+        ToolOptions options = ToolOptions.parse(new String[]{"--threads", "4", "location:/tmp/apis", "--quiet", "3"});
+        assertNotNull(options);
+        assertEquals("location:/tmp/apis", options.getSwaggerContent());
+        assertEquals(4, options.getThreads());
+        assertEquals(3, options.getValidationLevel());
+        assertTrue(options.isQuiet());
+    }
+
+    @Test
+    public void invalidArgumentsAreRejected() {
+        assertNull(ToolOptions.parse(new String[]{"location:/tmp/apis", "4"}));
+        assertNull(ToolOptions.parse(new String[]{"location:/tmp/apis", "level"}));
+        assertNull(ToolOptions.parse(new String[]{"location:/tmp/apis", "--threads", "many"}));
+        assertNull(ToolOptions.parse(new String[]{"location:/tmp/apis", "--threads"}));
+        // an unknown option is taken as a positional argument, which is one too many here
+        assertNull(ToolOptions.parse(new String[]{"location:/tmp/apis", "2", "--unknown"}));
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ValidationErrorTest {
+    @Test
+    public void logLineNamesTheSpecificationOnlyIfItIsKnown() {
+        assertEquals("Invalid Swagger", prefix(Constants.SwaggerVersion.SWAGGER));
+        assertEquals("Invalid OpenAPI", prefix(Constants.SwaggerVersion.OPEN_API));
+        assertEquals("Invalid definition", prefix(Constants.SwaggerVersion.ERROR));
+        assertEquals("Invalid definition", prefix(null));
+    }
+
+    private static String prefix(Constants.SwaggerVersion specification) {
+        String logLine = ValidationError.coded(specification, Constants.VALIDATION_TIMEOUT_ERROR_CODE,
+                Constants.VALIDATION_TIMEOUT_ERROR_MESSAGE, "stopped").toString();
+        return logLine.substring(0, logLine.indexOf(','));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ *
+ *   Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.apim.swagger.tool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Posted definitions are read and validated within the heap budget of the tool.
+ */
+public class ValidationServerTest {
+    /**
+     * Budget that lets a definition of up to 2 KB be read, and a Swagger 2 definition of up to 800 bytes be validated.
+     */
+    private static final long HEAP_BUDGET_BYTES = 64 * 1024;
+    private static final String SWAGGER = "{\"swagger\": \"2.0\", \"info\": {\"title\": \"posted\", "
+            + "\"version\": \"1\"}, \"paths\": {}}";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private HeapBudget previousHeapBudget;
+    private ValidationServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        previousHeapBudget = SwaggerTool.heapBudget;
+        SwaggerTool.heapBudget = HeapBudget.enforced(HEAP_BUDGET_BYTES);
+        server = new ValidationServer(0, 1, 2);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+        SwaggerTool.heapBudget = previousHeapBudget;
+    }
+
+    @Test
+    public void definitionWithinTheBudgetIsValidated() throws IOException {
+        JsonNode response = mapper.readTree(post(SWAGGER, true, 200));
+        assertEquals("VALID", response.get("status").asText());
+    }
+
+    @Test
+    public void definitionEstimatedToExceedTheBudgetIsRejected() throws IOException {
+        JsonNode response = mapper.readTree(post(padded(1024), true, 200));
+        assertEquals("LIMIT_EXCEEDED", response.get("status").asText());
+    }
+
+    @Test
+    public void bodyTooLargeForTheBudgetIsRefused() throws IOException {
+        post(padded(4096), true, 413);
+        // without a content length the body is read until it exceeds the limit
+        post(padded(4096), false, 413);
+        assertEquals(0, server.getSummary().getTotalFileCount());
+    }
+
+    @Test
+    public void invalidContentLengthIsRefused() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            OutputStream outputStream = socket.getOutputStream();
+            outputStream.write("POST /validate HTTP/1.1\r\nHost: 127.0.0.1\r\nContent-Length: abc\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            outputStream.flush();
+            String statusLine = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.US_ASCII)).readLine();
+            assertEquals("HTTP/1.1 400 Bad Request", statusLine);
+        }
+        assertEquals(0, server.getSummary().getTotalFileCount());
+    }
+
+    /**
+     * @return Swagger definition of the given size, padded with spaces
+     */
+    private static String padded(int size) {
+        StringBuilder definition = new StringBuilder(SWAGGER);
+        while (definition.length() < size) {
+            definition.append(' ');
+        }
+        return definition.toString();
+    }
+
+    private String post(String definition, boolean fixedLength, int expectedStatus) throws IOException {
+        byte[] body = definition.getBytes(StandardCharsets.UTF_8);
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort()
+                + "/validate?level=2").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        if (fixedLength) {
+            connection.setFixedLengthStreamingMode(body.length);
+        } else {
+            connection.setChunkedStreamingMode(512);
+        }
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(body);
+        } catch (IOException e) {
+            // the server may reply before the whole body is sent
+        }
+        assertEquals(expectedStatus, connection.getResponseCode());
+        try (InputStream inputStream = expectedStatus == 200 ? connection.getInputStream()
+                : connection.getErrorStream()) {
+            return new String(readAll(inputStream), StandardCharsets.UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static byte[] readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+}